@@ -0,0 +1,26 @@
+package aoc2023;
+
+public class BenchmarkInputs {
+
+    /**
+     * Load the input for a day, see {@link Inputs#load}. E.g. {@code -p size=large} reads day05-large.txt.
+     */
+    static String load(int day, String size) {
+        return Inputs.load(day, size);
+    }
+
+    /**
+     * Like {@link #load}, but memory mapped, see {@link Inputs#map}.
+     */
+    static AsciiInput map(int day, String size) {
+        return Inputs.map(day, size);
+    }
+
+    /**
+     * @return the day of a benchmark method named like {@code day05part2}
+     */
+    static int day(String benchmark) {
+        var method = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+        return Integer.parseInt(method.substring("day".length(), "day".length() + 2));
+    }
+}
@@ -0,0 +1,60 @@
+package aoc2023;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the shared parsing and position helpers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HelpersBenchmark {
+
+    @Param({"input"})
+    public String size;
+
+    // A grid map and a file with lots of numbers per line
+    String gridInput;
+    String[] numberLines;
+
+    @Setup
+    public void setup() {
+        gridInput = BenchmarkInputs.load(14, size);
+        numberLines = BenchmarkInputs.load(9, size).split("\n");
+    }
+
+    @Benchmark
+    public Map<Pos, String> gridsParse() {
+        return Grids.parse(gridInput, s -> s.equals(".") ? null : s);
+    }
+
+    @Benchmark
+    public void parsingNumbers(Blackhole blackhole) {
+        for (String line : numberLines) {
+            blackhole.consume(Parsing.numbers(line));
+        }
+    }
+
+    @Benchmark
+    public void parsingNumbersLong(Blackhole blackhole) {
+        for (String line : numberLines) {
+            blackhole.consume(Parsing.numbersLong(line));
+        }
+    }
+
+    @Benchmark
+    public void posNeighbors(Blackhole blackhole) {
+        for (int y = 0; y < 100; y++) {
+            for (int x = 0; x < 100; x++) {
+                blackhole.consume(new Pos(x, y).neighbors());
+            }
+        }
+    }
+}
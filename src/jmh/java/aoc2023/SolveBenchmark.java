@@ -0,0 +1,345 @@
+package aoc2023;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One benchmark per solve method. Run with the GC profiler ({@code -prof gc}, the default in the jmh profile) to
+ * also get the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolveBenchmark {
+
+    @Param({"input"})
+    public String size;
+
+    String input;
+    // Day 1 can also run directly on the memory mapped file
+    AsciiInput mapped;
+    // Day 2 answers many bag queries against the same games
+    Day02.Games day02Games;
+    int[][] day02Bags;
+    CharGrid day03Grid;
+    // Day 5 looks up many seeds in the same almanac
+    Day05.SeedToLocation day05SeedToLocation;
+    long[] day05Seeds;
+    // Day 6 evaluates many races at once
+    long[][] day06Races;
+    // Part 2 of day 13 needs the reflections of part 1
+    List<Integer> day13Reflections;
+
+    @Setup
+    public void setup(BenchmarkParams params) {
+        var day = BenchmarkInputs.day(params.getBenchmark());
+        input = BenchmarkInputs.load(day, size);
+        if (day == 1) {
+            mapped = BenchmarkInputs.map(day, size);
+        }
+        if (day == 2) {
+            day02Games = Day02.Games.parse(input);
+            var random = new Random(1);
+            day02Bags = new int[3][1000];
+            for (int[] color : day02Bags) {
+                Arrays.setAll(color, i -> random.nextInt(21));
+            }
+        }
+        if (day == 3) {
+            day03Grid = CharGrid.parse(input);
+        }
+        if (day == 5) {
+            day05SeedToLocation = Day05.parse(input).seedToLocation();
+            var random = new Random(1);
+            day05Seeds = new long[1000];
+            Arrays.setAll(day05Seeds, i -> random.nextLong(1L << 32));
+        }
+        if (day == 6) {
+            var random = new Random(1);
+            day06Races = new long[2][1000];
+            Arrays.setAll(day06Races[0], i -> random.nextLong(1L << 31));
+            Arrays.setAll(day06Races[1], i -> random.nextLong(day06Races[0][i] * day06Races[0][i] / 4));
+        }
+        if (day == 13) {
+            day13Reflections = Day13.solve1(input);
+        }
+    }
+
+    @Benchmark
+    public int day01part1() {
+        return Day01.solve1(input);
+    }
+
+    @Benchmark
+    public long day01part1Parallel() {
+        return Day01.solve1Parallel(mapped, 1 << 20);
+    }
+
+    @Benchmark
+    public int day01part2() {
+        return Day01.solve2(input);
+    }
+
+    @Benchmark
+    public long day01part2Mapped() {
+        return Day01.solve2(mapped, Day01.ENGLISH);
+    }
+
+    @Benchmark
+    public int day02part1() {
+        return Day02.solve1(input);
+    }
+
+    @Benchmark
+    public int day02part2() {
+        return Day02.solve2(input);
+    }
+
+    @Benchmark
+    public long[] day02queries() {
+        return day02Games.possibleIdSums(day02Bags[0], day02Bags[1], day02Bags[2]);
+    }
+
+    @Benchmark
+    public int day03part1() {
+        return Day03.solve1(input);
+    }
+
+    @Benchmark
+    public int day03part2() {
+        return Day03.solve2(input);
+    }
+
+    @Benchmark
+    public Day03.Totals day03parallel() {
+        return Day03.solveParallel(day03Grid, 64);
+    }
+
+    @Benchmark
+    public long day04part1() {
+        return Day04.solve1(input);
+    }
+
+    @Benchmark
+    public long day04part2() {
+        return Day04.solve2(input);
+    }
+
+    @Benchmark
+    public long day05part1() {
+        return Day05.solve1(input);
+    }
+
+    @Benchmark
+    public long day05part2() {
+        return Day05.solve2(input);
+    }
+
+    @Benchmark
+    public long[] day05lookups() {
+        return day05SeedToLocation.locations(day05Seeds);
+    }
+
+    @Benchmark
+    public long day06part1() {
+        return Day06.solve1(input);
+    }
+
+    @Benchmark
+    public long day06part2() {
+        return Day06.solve2(input);
+    }
+
+    @Benchmark
+    public long[] day06races() {
+        return Day06.beatRecords(day06Races[0], day06Races[1]);
+    }
+
+    @Benchmark
+    public long day07part1() {
+        return Day07.solve1(input);
+    }
+
+    @Benchmark
+    public long day07part2() {
+        return Day07.solve2(input);
+    }
+
+    @Benchmark
+    public long day08part1() {
+        return Day08.solve1(input);
+    }
+
+    @Benchmark
+    public long day08part2() {
+        return Day08.solve2(input);
+    }
+
+    @Benchmark
+    public long day09part1() {
+        return Day09.solve1(input);
+    }
+
+    @Benchmark
+    public long day09part2() {
+        return Day09.solve2(input);
+    }
+
+    @Benchmark
+    public long day10part1() {
+        return Day10.solve1(input);
+    }
+
+    @Benchmark
+    public long day10part2() {
+        return Day10.solve2(input);
+    }
+
+    @Benchmark
+    public long day11part1() {
+        return Day11.solve1(input);
+    }
+
+    @Benchmark
+    public long day11part2() {
+        return Day11.solve2(input);
+    }
+
+    @Benchmark
+    public long day12part1() {
+        return Day12.solve1(input);
+    }
+
+    @Benchmark
+    public long day12part2() {
+        return Day12.solve2(input);
+    }
+
+    @Benchmark
+    public List<Integer> day13part1() {
+        return Day13.solve1(input);
+    }
+
+    @Benchmark
+    public long day13part2() {
+        return Day13.solve2(input, day13Reflections);
+    }
+
+    @Benchmark
+    public long day14part1() {
+        return Day14.solve1(input);
+    }
+
+    @Benchmark
+    public long day14part2() {
+        return Day14.solve2(input);
+    }
+
+    @Benchmark
+    public long day15part1() {
+        return Day15.solve1(input);
+    }
+
+    @Benchmark
+    public long day15part2() {
+        return Day15.solve2(input);
+    }
+
+    @Benchmark
+    public long day16part1() {
+        return Day16.solve1(input);
+    }
+
+    @Benchmark
+    public long day16part2() {
+        return Day16.solve2(input);
+    }
+
+    @Benchmark
+    public int day17part1() {
+        return Day17.solve1(input);
+    }
+
+    @Benchmark
+    public int day17part2() {
+        return Day17.solve2(input);
+    }
+
+    @Benchmark
+    public long day18part1() {
+        return Day18.solve1(input);
+    }
+
+    @Benchmark
+    public long day18part2() {
+        return Day18.solve2(input);
+    }
+
+    @Benchmark
+    public long day19part1() {
+        return Day19.solve1(input);
+    }
+
+    @Benchmark
+    public long day19part2() {
+        return Day19.solve2(input);
+    }
+
+    @Benchmark
+    public long day20part1() {
+        return Day20.solve1(input);
+    }
+
+    @Benchmark
+    public long day20part2() {
+        return Day20.solve2(input);
+    }
+
+    @Benchmark
+    public long day21part1() {
+        return Day21.solve1(input);
+    }
+
+    @Benchmark
+    public long day21part2() {
+        return Day21.solve2(input);
+    }
+
+    @Benchmark
+    public long day22part1() {
+        return Day22.solve1(input);
+    }
+
+    @Benchmark
+    public long day22part2() {
+        return Day22.solve2(input);
+    }
+
+    @Benchmark
+    public long day23part1() {
+        return Day23.solve1(input);
+    }
+
+    @Benchmark
+    public long day23part2() {
+        return Day23.solve2(input);
+    }
+
+    @Benchmark
+    public long day24part1() {
+        return Day24.solve1(input, 200000000000000L, 400000000000000L);
+    }
+
+    @Benchmark
+    public long day25part1() {
+        return Day25.solve1(input);
+    }
+}
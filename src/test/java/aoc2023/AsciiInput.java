@@ -0,0 +1,174 @@
+package aoc2023;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * ASCII text as a CharSequence over a byte buffer (usually a memory mapped file, see {@link Resources#mapAscii}),
+ * one byte per char. Nothing is decoded or copied unless {@link #toString()} is called.
+ */
+public class AsciiInput implements CharSequence {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    public AsciiInput(ByteBuffer buffer) {
+        this(buffer, buffer.position(), buffer.remaining());
+    }
+
+    AsciiInput(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public static AsciiInput of(String s) {
+        return new AsciiInput(ByteBuffer.wrap(s.getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    /**
+     * @return a read-only buffer of exactly this input, sharing the content
+     */
+    public ByteBuffer buffer() {
+        return buffer.slice(offset, length).asReadOnlyBuffer();
+    }
+
+    public byte byteAt(int index) {
+        return buffer.get(offset + Objects.checkIndex(index, length));
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (byteAt(index) & 0xff);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public AsciiInput subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new AsciiInput(buffer, offset + start, end - start);
+    }
+
+    /**
+     * @return index of the first {@code b} at or after {@code from}, or -1
+     */
+    public int indexOf(byte b, int from) {
+        for (int i = Math.max(from, 0); i < length; i++) {
+            if (buffer.get(offset + i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return index of the last {@code b} at or before {@code from}, or -1
+     */
+    public int lastIndexOf(byte b, int from) {
+        for (int i = Math.min(from, length - 1); i >= 0; i--) {
+            if (buffer.get(offset + i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Split into chunks of at most {@code maxChunkSize} bytes, for processing them in parallel. All chunks except
+     * the last one end after a newline, so no line is split between two chunks.
+     */
+    public List<AsciiInput> chunks(int maxChunkSize) {
+        var chunks = new ArrayList<AsciiInput>();
+        var start = 0;
+        while (start < length) {
+            var end = (int) Math.min(length, (long) start + maxChunkSize);
+            if (end < length) {
+                var newline = lastIndexOf((byte) '\n', end - 1);
+                if (newline < start) {
+                    throw new IllegalArgumentException("Line at offset " + start + " is longer than " + maxChunkSize);
+                }
+                end = newline + 1;
+            }
+            chunks.add(subSequence(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * @return a cursor over the lines, positioned before the first line
+     */
+    public LineCursor lines() {
+        return new LineCursor();
+    }
+
+    @Override
+    public String toString() {
+        var bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Iterates over the lines without allocating: the current line is just an offset and length into the input.
+     */
+    public class LineCursor {
+        private int start = 0;
+        private int end = -1;
+        private int next = 0;
+
+        /**
+         * Advance to the next line.
+         *
+         * @return false if there are no more lines
+         */
+        public boolean next() {
+            if (next >= length) {
+                return false;
+            }
+            start = next;
+            var newline = indexOf((byte) '\n', start);
+            end = newline < 0 ? length : newline;
+            next = end + 1;
+            return true;
+        }
+
+        /**
+         * @return offset of the current line in the input
+         */
+        public int start() {
+            return start;
+        }
+
+        public int length() {
+            return end - start;
+        }
+
+        public byte byteAt(int index) {
+            return AsciiInput.this.byteAt(start + Objects.checkIndex(index, length()));
+        }
+
+        public char charAt(int index) {
+            return (char) (byteAt(index) & 0xff);
+        }
+
+        public AsciiInput input() {
+            return AsciiInput.this;
+        }
+
+        /**
+         * @return the current line as a view, for code that wants a CharSequence
+         */
+        public AsciiInput line() {
+            return subSequence(start, end);
+        }
+    }
+}
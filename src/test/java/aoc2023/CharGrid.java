@@ -0,0 +1,210 @@
+package aoc2023;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Dense grid of ASCII cells, backed by a single byte array.
+ * <p>
+ * When parsed from input, the array is the raw input itself: row {@code y} starts at {@code y * stride} and
+ * the newline at the end of each row is simply skipped over. Use this instead of {@link Grids#parse} for big maps,
+ * it doesn't allocate anything per cell.
+ */
+public class CharGrid {
+
+    private final byte[] cells;
+    private final int width;
+    private final int height;
+    private final int stride;
+
+    private CharGrid(byte[] cells, int width, int height, int stride) {
+        this.cells = cells;
+        this.width = width;
+        this.height = height;
+        this.stride = stride;
+    }
+
+    public static CharGrid parse(String input) {
+        return parse(input.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    public static CharGrid parse(byte[] input) {
+        var width = 0;
+        while (width < input.length && input[width] != '\n') {
+            width++;
+        }
+        var stride = width + 1;
+        var height = (input.length + 1) / stride;
+        // The last line might not have a trailing newline
+        if (height * stride < input.length) {
+            height++;
+        }
+        for (int y = 0; y < height; y++) {
+            var end = y * stride + width;
+            if (end > input.length || (end < input.length && input[end] != '\n')) {
+                throw new IllegalArgumentException("Line " + y + " doesn't have expected length " + width);
+            }
+        }
+        return new CharGrid(input, width, height, stride);
+    }
+
+    public static CharGrid filled(int width, int height, char c) {
+        var cells = new byte[width * height];
+        Arrays.fill(cells, (byte) c);
+        return new CharGrid(cells, width, height, width);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int stride() {
+        return stride;
+    }
+
+    public PosBounds bounds() {
+        return new PosBounds(0, width - 1, 0, height - 1);
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean contains(Pos pos) {
+        return contains(pos.x(), pos.y());
+    }
+
+    public char get(int x, int y) {
+        return (char) (cells[index(x, y)] & 0xff);
+    }
+
+    public char get(Pos pos) {
+        return get(pos.x(), pos.y());
+    }
+
+    /**
+     * @return the cell at the position, or {@code outside} if the position is not within the grid
+     */
+    public char getOrDefault(int x, int y, char outside) {
+        return contains(x, y) ? (char) (cells[y * stride + x] & 0xff) : outside;
+    }
+
+    public char getOrDefault(Pos pos, char outside) {
+        return getOrDefault(pos.x(), pos.y(), outside);
+    }
+
+    public void set(int x, int y, char c) {
+        cells[index(x, y)] = (byte) c;
+    }
+
+    public void set(Pos pos, char c) {
+        set(pos.x(), pos.y(), c);
+    }
+
+    /**
+     * @return a view of row {@code y}, without copying it
+     */
+    public CharSequence row(int y) {
+        if (y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Row " + y + " out of bounds for height " + height);
+        }
+        return new Row(y * stride, width);
+    }
+
+    /**
+     * @return the first position (in row order) with the cell {@code c}, or null if there is none
+     */
+    public Pos find(char c) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (cells[y * stride + x] == (byte) c) {
+                    return new Pos(x, y);
+                }
+            }
+        }
+        return null;
+    }
+
+    public CharGrid copy() {
+        var copy = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(cells, y * stride, copy, y * width, width);
+        }
+        return new CharGrid(copy, width, height, width);
+    }
+
+    /**
+     * Sparse map view like {@link Grids#parse}, for code that hasn't been moved over to the dense grid yet.
+     */
+    public <T> Map<Pos, T> toMap(Function<String, T> parseCell) {
+        var map = new LinkedHashMap<Pos, T>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                var cell = parseCell.apply(String.valueOf(get(x, y)));
+                if (cell != null) {
+                    map.put(new Pos(x, y), cell);
+                }
+            }
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        var sb = new StringBuilder(height * (width + 1));
+        for (int y = 0; y < height; y++) {
+            sb.append(row(y)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private int index(int x, int y) {
+        if (!contains(x, y)) {
+            throw new IndexOutOfBoundsException("Position " + x + "," + y + " out of bounds for grid " + width + "x" + height);
+        }
+        return y * stride + x;
+    }
+
+    private class Row implements CharSequence {
+        private final int offset;
+        private final int length;
+
+        Row(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return (char) (cells[offset + index] & 0xff);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            if (start < 0 || end > length || start > end) {
+                throw new IndexOutOfBoundsException("Range " + start + ".." + end + " out of bounds for length " + length);
+            }
+            return new Row(offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(cells, offset, length, StandardCharsets.ISO_8859_1);
+        }
+    }
+}
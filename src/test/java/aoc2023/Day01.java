@@ -1,48 +1,285 @@
 package aoc2023;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.regex.Pattern;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class Day01 {
 
     static int solve1(String input) {
-        var sum = 0;
-        for (var line : input.split("\n")) {
-            var digits = Arrays.stream(line.split(""))
-                    .filter(s -> Character.isDigit(s.charAt(0)))
-                    .map(Integer::parseInt)
-                    .toList();
-            sum += digits.get(0) * 10 + digits.get(digits.size() - 1);
+        return Math.toIntExact(sum1(AsciiInput.of(input)));
+    }
+
+    /**
+     * Part 1 for huge inputs: sums newline-aligned chunks of at most {@code chunkSize} bytes in parallel.
+     */
+    static long solve1Parallel(AsciiInput input, int chunkSize) {
+        return solve1Parallel(input.chunks(chunkSize));
+    }
+
+    /**
+     * Part 1 for chunks that don't split lines, e.g. from {@link Resources#mapAsciiChunks} for files over 2 GB.
+     */
+    static long solve1Parallel(List<AsciiInput> chunks) {
+        return chunks.parallelStream().mapToLong(Day01::sum1).sum();
+    }
+
+    // One pass over the bytes, remembering the first and last digit of the current line
+    static long sum1(AsciiInput input) {
+        var sum = 0L;
+        var first = -1;
+        var last = -1;
+        var lineStart = 0;
+        var length = input.length();
+        for (int i = 0; i < length; i++) {
+            var b = input.byteAt(i);
+            if (b == '\n') {
+                if (first < 0) {
+                    throw new IllegalArgumentException("No digit in line at offset " + lineStart);
+                }
+                sum += first * 10 + last;
+                first = -1;
+                lineStart = i + 1;
+            } else if (b >= '0' && b <= '9') {
+                if (first < 0) {
+                    first = b - '0';
+                }
+                last = b - '0';
+            }
+        }
+        if (lineStart < length) {
+            if (first < 0) {
+                throw new IllegalArgumentException("No digit in line at offset " + lineStart);
+            }
+            sum += first * 10 + last;
         }
         return sum;
     }
 
     static int solve2(String input) {
-        // There are overlapping digits, like "twone", so we need to use a lookahead instead of a simple group.
-        var pattern = Pattern.compile("(?=(\\d|one|two|three|four|five|six|seven|eight|nine))");
-        var sum = 0;
-        for (var line : input.split("\n")) {
-            var digits = pattern.matcher(line).results().map(r -> switch (r.group(1)) {
-                case "1", "one" -> 1;
-                case "2", "two" -> 2;
-                case "3", "three" -> 3;
-                case "4", "four" -> 4;
-                case "5", "five" -> 5;
-                case "6", "six" -> 6;
-                case "7", "seven" -> 7;
-                case "8", "eight" -> 8;
-                case "9", "nine" -> 9;
-                default -> throw new IllegalStateException("Unexpected value: " + r.group());
-            }).toList();
-            sum += digits.get(0) * 10 + digits.get(digits.size() - 1);
+        return Math.toIntExact(solve2(AsciiInput.of(input), ENGLISH));
+    }
+
+    static int solve2(AsciiInput input) {
+        return Math.toIntExact(solve2(input, ENGLISH));
+    }
+
+    /**
+     * Like part 2, but with the number words of any language.
+     */
+    static long solve2(AsciiInput input, DigitAutomaton digits) {
+        var sum = 0L;
+        var lines = input.lines();
+        while (lines.next()) {
+            var start = lines.start();
+            var end = start + lines.length();
+            var first = digits.first(input, start, end);
+            if (first < 0) {
+                throw new IllegalArgumentException("No digit in line at offset " + start);
+            }
+            sum += first * 10 + digits.last(input, start, end);
         }
         return sum;
     }
 
+    static final DigitAutomaton ENGLISH = DigitAutomaton.withWords(Map.of(
+            "one", 1, "two", 2, "three", 3, "four", 4, "five", 5, "six", 6, "seven", 7, "eight", 8, "nine", 9));
+
+    /**
+     * Finds the first and last digit word of a line without looking at every byte: the first by scanning forward
+     * from the start, the last by scanning backward from the end. Words can overlap, like in "twone".
+     * <p>
+     * Both directions are Aho-Corasick automatons compiled into a transition table, the backward one is for the
+     * reversed words. Bytes are mapped to a small number of classes first (bytes that are not in any word are
+     * class 0), to keep the table small.
+     * <p>
+     * Words are matched as their UTF-8 bytes, so words with non-ASCII letters need UTF-8 input, e.g. a mapped UTF-8
+     * file (not {@link AsciiInput#of}, which encodes as ISO-8859-1).
+     * <p>
+     * Compile an automaton once and reuse it, it's immutable and can be shared between threads.
+     */
+    static final class DigitAutomaton {
+        private final int[] classes;
+        private final int classCount;
+        private final int maxLength;
+        private final Table forward;
+        private final Table backward;
+
+        /**
+         * Transitions for state * classCount + class, and for each state the length and value of the longest word
+         * ending there (length 0 for none).
+         */
+        private record Table(int[] transitions, int[] lengths, int[] values) {
+        }
+
+        private DigitAutomaton(int[] classes, int classCount, int maxLength, Table forward, Table backward) {
+            this.classes = classes;
+            this.classCount = classCount;
+            this.maxLength = maxLength;
+            this.forward = forward;
+            this.backward = backward;
+        }
+
+        /**
+         * @param words number words and their digit value (0 to 9), the digits 1 to 9 are always included
+         */
+        static DigitAutomaton withWords(Map<String, Integer> words) {
+            var allWords = new ArrayList<String>();
+            var values = new ArrayList<Integer>();
+            for (int digit = 1; digit <= 9; digit++) {
+                allWords.add(String.valueOf(digit));
+                values.add(digit);
+            }
+            // Sorted, so that the table doesn't depend on the iteration order of the map
+            for (var entry : new TreeMap<>(words).entrySet()) {
+                if (entry.getValue() < 0 || entry.getValue() > 9) {
+                    throw new IllegalArgumentException("Value of " + entry.getKey() + " is not a digit: " + entry.getValue());
+                }
+                allWords.add(entry.getKey());
+                values.add(entry.getValue());
+            }
+            return compile(allWords.toArray(String[]::new), values.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        static DigitAutomaton compile(String[] words, int[] values) {
+            // The automatons step over bytes, so words are matched as their UTF-8 bytes
+            var bytes = new byte[words.length][];
+            var reversed = new byte[words.length][];
+            var classes = new int[256];
+            var classCount = 1;
+            var maxLength = 0;
+            for (int w = 0; w < words.length; w++) {
+                if (words[w].isEmpty()) {
+                    throw new IllegalArgumentException("Words can't be empty");
+                }
+                bytes[w] = words[w].getBytes(StandardCharsets.UTF_8);
+                reversed[w] = new byte[bytes[w].length];
+                for (int i = 0; i < bytes[w].length; i++) {
+                    var b = bytes[w][i] & 0xff;
+                    if (classes[b] == 0) {
+                        classes[b] = classCount++;
+                    }
+                    reversed[w][bytes[w].length - 1 - i] = bytes[w][i];
+                }
+                maxLength = Math.max(maxLength, bytes[w].length);
+            }
+            return new DigitAutomaton(classes, classCount, maxLength,
+                    table(bytes, values, classes, classCount), table(reversed, values, classes, classCount));
+        }
+
+        private static Table table(byte[][] words, int[] values, int[] classes, int classCount) {
+            // Trie first, -1 for missing transitions
+            var stateCount = 1;
+            for (byte[] word : words) {
+                stateCount += word.length;
+            }
+            var transitions = new int[stateCount * classCount];
+            Arrays.fill(transitions, -1);
+            var lengths = new int[stateCount];
+            var wordValues = new int[stateCount];
+            var states = 1;
+            for (int w = 0; w < words.length; w++) {
+                var state = 0;
+                for (byte b : words[w]) {
+                    var index = state * classCount + classes[b & 0xff];
+                    if (transitions[index] < 0) {
+                        transitions[index] = states++;
+                    }
+                    state = transitions[index];
+                }
+                lengths[state] = words[w].length;
+                wordValues[state] = values[w];
+            }
+
+            // Fill in the missing transitions with the ones of the longest suffix, breadth-first so that the
+            // suffix states are complete already
+            var fail = new int[states];
+            var queue = new int[states];
+            var head = 0;
+            var tail = 0;
+            for (int c = 0; c < classCount; c++) {
+                var next = transitions[c];
+                if (next < 0) {
+                    transitions[c] = 0;
+                } else {
+                    fail[next] = 0;
+                    queue[tail++] = next;
+                }
+            }
+            while (head < tail) {
+                var state = queue[head++];
+                if (lengths[state] == 0) {
+                    lengths[state] = lengths[fail[state]];
+                    wordValues[state] = wordValues[fail[state]];
+                }
+                for (int c = 0; c < classCount; c++) {
+                    var index = state * classCount + c;
+                    var next = transitions[index];
+                    var suffixNext = transitions[fail[state] * classCount + c];
+                    if (next < 0) {
+                        transitions[index] = suffixNext;
+                    } else {
+                        fail[next] = suffixNext;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return new Table(Arrays.copyOf(transitions, states * classCount), Arrays.copyOf(lengths, states),
+                    Arrays.copyOf(wordValues, states));
+        }
+
+        /**
+         * @return value of the word that starts first in [from, to), the longest one if multiple start at the same
+         * position, or -1 if there is none
+         */
+        int first(AsciiInput input, int from, int to) {
+            var transitions = forward.transitions();
+            var lengths = forward.lengths();
+            var state = 0;
+            var bestStart = Integer.MAX_VALUE;
+            var bestValue = -1;
+            // Once past the best start plus the longest word, nothing can start earlier anymore
+            for (int i = from; i < to && i - maxLength < bestStart; i++) {
+                state = transitions[state * classCount + classes[input.byteAt(i) & 0xff]];
+                var length = lengths[state];
+                if (length > 0 && i - length + 1 <= bestStart) {
+                    bestStart = i - length + 1;
+                    bestValue = forward.values()[state];
+                }
+            }
+            return bestValue;
+        }
+
+        /**
+         * @return value of the word that starts last in [from, to), the longest one if multiple start at the same
+         * position, or -1 if there is none
+         */
+        int last(AsciiInput input, int from, int to) {
+            var transitions = backward.transitions();
+            var lengths = backward.lengths();
+            var state = 0;
+            for (int i = to - 1; i >= from; i--) {
+                state = transitions[state * classCount + classes[input.byteAt(i) & 0xff]];
+                // A reversed word ending here is a word starting here
+                if (lengths[state] > 0) {
+                    return backward.values()[state];
+                }
+            }
+            return -1;
+        }
+    }
+
     @Test
     void example1() {
         var s = """
@@ -52,6 +289,7 @@ public class Day01 {
                 treb7uchet
                 """;
         assertEquals(142, solve1(s));
+        assertEquals(142, solve1Parallel(AsciiInput.of(s), 12));
     }
 
     @Test
@@ -68,6 +306,47 @@ public class Day01 {
         assertEquals(281, solve2(s));
     }
 
+    @Test
+    void overlapping() {
+        var s = """
+                twone
+                oneight
+                eightwo
+                7
+                sevenine
+                """;
+        assertEquals(21 + 18 + 82 + 77 + 79, solve2(s));
+    }
+
+    @Test
+    void otherLanguage() {
+        var german = DigitAutomaton.withWords(Map.of(
+                "eins", 1, "zwei", 2, "drei", 3, "vier", 4, "fünf", 5, "sechs", 6, "sieben", 7, "acht", 8, "neun", 9));
+        var s = """
+                zweieins
+                xdreinsx
+                7achtzehn
+                """;
+        assertEquals(21 + 31 + 78, solve2(AsciiInput.of(s), german));
+    }
+
+    @Test
+    void utf8(@TempDir Path dir) throws IOException {
+        var german = DigitAutomaton.withWords(Map.of("fünf", 5, "zwölf", 2, "drei", 3));
+        var greek = DigitAutomaton.withWords(Map.of("ένα", 1, "δύο", 2, "πέντε", 5));
+        var russian = DigitAutomaton.withWords(Map.of("один", 1, "два", 2, "пять", 5));
+        var file = dir.resolve("digits.txt");
+
+        Files.writeString(file, "fünfxdreiü\nzwölfünf\n", StandardCharsets.UTF_8);
+        assertEquals(53 + 25, solve2(Resources.mapAscii(file.toUri().toURL()), german));
+
+        Files.writeString(file, "έναxδύο\nπέντε7\n", StandardCharsets.UTF_8);
+        assertEquals(12 + 57, solve2(Resources.mapAscii(file.toUri().toURL()), greek));
+
+        Files.writeString(file, "пятьодиндва\n3два\n", StandardCharsets.UTF_8);
+        assertEquals(52 + 32, solve2(Resources.mapAscii(file.toUri().toURL()), russian));
+    }
+
     @Test
     void input() {
         var input = Resources.readString(Resources.class.getResource("/day01.txt"));
@@ -2,8 +2,12 @@ package aoc2023;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -11,52 +15,289 @@ public class Day02 {
 
     static int solve1(String input) {
         // 12 red cubes, 13 green cubes, and 14 blue cubes
-        var max = Map.of("red", 12, "green", 13, "blue", 14);
-        var result = 0;
-        var lines = input.split("\n");
-        for (var line : lines) {
-            var colonParts = line.split(": ");
-            var id = Parsing.numbers(colonParts[0]).get(0);
-            var hands = colonParts[1].split("; ");
-            var possible = true;
-            for (var hand : hands) {
-                var commaParts = hand.split(", ");
-                for (var commaPart : commaParts) {
-                    var numberColor = commaPart.split(" ");
-                    var number = Parsing.numbers(numberColor[0]).get(0);
-                    var color = numberColor[1];
-                    if (number > max.get(color)) {
-                        possible = false;
+        return Math.toIntExact(Games.parse(input).possibleIdSum(12, 13, 14));
+    }
+
+    static int solve2(String input) {
+        return Math.toIntExact(Games.parse(input).powerSum());
+    }
+
+    record Answers(long possibleIdSum, long powerSum) {
+    }
+
+    /**
+     * Both answers in a single pass over a game log of any size, without keeping the games in memory.
+     */
+    static Answers solve(Reader reader, int bagRed, int bagGreen, int bagBlue) {
+        var possibleIdSum = new long[1];
+        var powerSum = new long[1];
+        GameScanner.scan(reader, (id, red, green, blue) -> {
+            if (red <= bagRed && green <= bagGreen && blue <= bagBlue) {
+                possibleIdSum[0] += id;
+            }
+            powerSum[0] += power(red, green, blue);
+        });
+        return new Answers(possibleIdSum[0], powerSum[0]);
+    }
+
+    static long power(int red, int green, int blue) {
+        // Colors that are never drawn don't count, like in the original solution
+        return (long) Math.max(red, 1) * Math.max(green, 1) * Math.max(blue, 1);
+    }
+
+    interface GameConsumer {
+        void accept(int id, int red, int green, int blue);
+    }
+
+    /**
+     * Parses a game log one char at a time, without splitting or allocating. A number followed by a word is a
+     * number of cubes, the first letter of the word is enough to know the color. The maximum of each color is
+     * updated in place, and passed on at the end of each game.
+     */
+    static final class GameScanner {
+        private final GameConsumer consumer;
+        private int number = 0;
+        private boolean inNumber = false;
+        private boolean hasNumber = false;
+        private int id = -1;
+        private int red = 0;
+        private int green = 0;
+        private int blue = 0;
+
+        GameScanner(GameConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        static void scan(CharSequence input, GameConsumer consumer) {
+            var scanner = new GameScanner(consumer);
+            var length = input.length();
+            for (int i = 0; i < length; i++) {
+                scanner.accept(input.charAt(i));
+            }
+            scanner.finish();
+        }
+
+        static void scan(Reader reader, GameConsumer consumer) {
+            var scanner = new GameScanner(consumer);
+            var buffer = new char[8192];
+            try {
+                int read;
+                while ((read = reader.read(buffer)) >= 0) {
+                    for (int i = 0; i < read; i++) {
+                        scanner.accept(buffer[i]);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            scanner.finish();
+        }
+
+        void accept(char c) {
+            if (c >= '0' && c <= '9') {
+                number = (inNumber ? number * 10 : 0) + (c - '0');
+                inNumber = true;
+                hasNumber = true;
+                return;
+            }
+            inNumber = false;
+            switch (c) {
+                case ':' -> {
+                    id = number;
+                    hasNumber = false;
+                }
+                case '\n' -> finish();
+                case 'r', 'g', 'b' -> {
+                    // Only the first letter after a number, the rest of the word (and "Game") is skipped
+                    if (hasNumber) {
+                        switch (c) {
+                            case 'r' -> red = Math.max(red, number);
+                            case 'g' -> green = Math.max(green, number);
+                            default -> blue = Math.max(blue, number);
+                        }
+                        hasNumber = false;
+                    }
+                }
+                default -> {
+                    if (hasNumber && Character.isLetter(c)) {
+                        throw new IllegalArgumentException("Unknown color starting with " + c + " in game " + id);
                     }
                 }
             }
-            if (possible) {
-                result += id;
+        }
+
+        // End of a game
+        void finish() {
+            if (id >= 0) {
+                consumer.accept(id, red, green, blue);
             }
+            id = -1;
+            red = 0;
+            green = 0;
+            blue = 0;
+            hasNumber = false;
+            inNumber = false;
         }
-        return result;
     }
 
-    static int solve2(String input) {
-        var sum = 0;
-        var lines = input.split("\n");
-        for (var line : lines) {
-            var colonParts = line.split(": ");
-            var hands = colonParts[1].split("; ");
-            var max = new HashMap<String, Integer>();
-            for (var hand : hands) {
-                var commaParts = hand.split(", ");
-                for (var commaPart : commaParts) {
-                    var numberColor = commaPart.split(" ");
-                    var number = Parsing.numbers(numberColor[0]).get(0);
-                    var color = numberColor[1];
-                    max.put(color, Math.max(max.getOrDefault(color, 0), number));
+    /**
+     * The maximum number of cubes of each color per game, in one array per color. Also has an index for answering
+     * many queries of which games are possible with a bag, without looking at each game again.
+     */
+    static final class Games {
+        // Above this many cells, the prefix sum table would use too much memory, so queries scan the games instead
+        private static final int MAX_TABLE_SIZE = 1 << 21;
+
+        final int[] ids;
+        final int[] red;
+        final int[] green;
+        final int[] blue;
+        private final long powerSum;
+
+        // Distinct maxima of each color, sorted
+        private final int[] redValues;
+        private final int[] greenValues;
+        private final int[] blueValues;
+        // Sum of ids of games with red <= redValues[r], green <= greenValues[g] and blue <= blueValues[b], at index
+        // (r * greenValues.length + g) * blueValues.length + b. Null if it would be too big.
+        private final long[] idSums;
+
+        Games(int[] ids, int[] red, int[] green, int[] blue) {
+            this.ids = ids;
+            this.red = red;
+            this.green = green;
+            this.blue = blue;
+
+            var sum = 0L;
+            for (int i = 0; i < ids.length; i++) {
+                sum += power(red[i], green[i], blue[i]);
+            }
+            powerSum = sum;
+
+            redValues = IntStream.of(red).distinct().sorted().toArray();
+            greenValues = IntStream.of(green).distinct().sorted().toArray();
+            blueValues = IntStream.of(blue).distinct().sorted().toArray();
+            var size = (long) redValues.length * greenValues.length * blueValues.length;
+            idSums = size <= MAX_TABLE_SIZE ? buildIdSums() : null;
+        }
+
+        private long[] buildIdSums() {
+            var nr = redValues.length;
+            var ng = greenValues.length;
+            var nb = blueValues.length;
+            var table = new long[nr * ng * nb];
+            for (int i = 0; i < ids.length; i++) {
+                var r = Arrays.binarySearch(redValues, red[i]);
+                var g = Arrays.binarySearch(greenValues, green[i]);
+                var b = Arrays.binarySearch(blueValues, blue[i]);
+                table[(r * ng + g) * nb + b] += ids[i];
+            }
+            // Prefix sums along each axis turn the table into sums over all smaller or equal maxima
+            for (int r = 0; r < nr; r++) {
+                for (int g = 0; g < ng; g++) {
+                    for (int b = 1; b < nb; b++) {
+                        table[(r * ng + g) * nb + b] += table[(r * ng + g) * nb + b - 1];
+                    }
+                }
+            }
+            for (int r = 0; r < nr; r++) {
+                for (int g = 1; g < ng; g++) {
+                    for (int b = 0; b < nb; b++) {
+                        table[(r * ng + g) * nb + b] += table[(r * ng + g - 1) * nb + b];
+                    }
+                }
+            }
+            for (int r = 1; r < nr; r++) {
+                for (int g = 0; g < ng; g++) {
+                    for (int b = 0; b < nb; b++) {
+                        table[(r * ng + g) * nb + b] += table[((r - 1) * ng + g) * nb + b];
+                    }
+                }
+            }
+            return table;
+        }
+
+        static Games parse(CharSequence input) {
+            var builder = new Builder();
+            GameScanner.scan(input, builder);
+            return builder.build();
+        }
+
+        // Collects the scanned games into growing arrays
+        private static final class Builder implements GameConsumer {
+            private int size = 0;
+            private int[] ids = new int[64];
+            private int[] red = new int[64];
+            private int[] green = new int[64];
+            private int[] blue = new int[64];
+
+            @Override
+            public void accept(int id, int red, int green, int blue) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                    this.red = Arrays.copyOf(this.red, size * 2);
+                    this.green = Arrays.copyOf(this.green, size * 2);
+                    this.blue = Arrays.copyOf(this.blue, size * 2);
                 }
+                ids[size] = id;
+                this.red[size] = red;
+                this.green[size] = green;
+                this.blue[size] = blue;
+                size++;
             }
-            var power = max.values().stream().reduce(1, (a, b) -> a * b);
-            sum += power;
+
+            Games build() {
+                return new Games(Arrays.copyOf(ids, size), Arrays.copyOf(red, size), Arrays.copyOf(green, size),
+                        Arrays.copyOf(blue, size));
+            }
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /**
+         * @return sum of the ids of the games that are possible with a bag of these cubes
+         */
+        long possibleIdSum(int bagRed, int bagGreen, int bagBlue) {
+            if (idSums == null) {
+                var sum = 0L;
+                for (int i = 0; i < ids.length; i++) {
+                    if (red[i] <= bagRed && green[i] <= bagGreen && blue[i] <= bagBlue) {
+                        sum += ids[i];
+                    }
+                }
+                return sum;
+            }
+            var r = floorIndex(redValues, bagRed);
+            var g = floorIndex(greenValues, bagGreen);
+            var b = floorIndex(blueValues, bagBlue);
+            if (r < 0 || g < 0 || b < 0) {
+                return 0;
+            }
+            return idSums[(r * greenValues.length + g) * blueValues.length + b];
+        }
+
+        /**
+         * {@link #possibleIdSum} for many bags at once, bag i is {@code (bagRed[i], bagGreen[i], bagBlue[i])}.
+         */
+        long[] possibleIdSums(int[] bagRed, int[] bagGreen, int[] bagBlue) {
+            var result = new long[bagRed.length];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = possibleIdSum(bagRed[i], bagGreen[i], bagBlue[i]);
+            }
+            return result;
+        }
+
+        long powerSum() {
+            return powerSum;
+        }
+
+        // Index of the biggest value <= limit, or -1
+        private static int floorIndex(int[] sortedValues, int limit) {
+            var index = Arrays.binarySearch(sortedValues, limit);
+            return index >= 0 ? index : -index - 2;
         }
-        return sum;
     }
 
     @Test
@@ -69,6 +310,11 @@ public class Day02 {
                 Game 5: 6 red, 1 blue, 3 green; 2 blue, 1 red, 2 green
                 """;
         assertEquals(8, solve1(s));
+
+        var games = Games.parse(s);
+        assertEquals(1 + 2 + 3 + 4 + 5, games.possibleIdSum(20, 13, 15));
+        assertEquals(0, games.possibleIdSum(0, 13, 15));
+        assertEquals(2, games.possibleIdSum(1, 3, 4));
     }
 
     @Test
@@ -81,6 +327,7 @@ public class Day02 {
                 Game 5: 6 red, 1 blue, 3 green; 2 blue, 1 red, 2 green              
                 """;
         assertEquals(2286, solve2(s));
+        assertEquals(new Answers(8, 2286), solve(new StringReader(s), 12, 13, 14));
     }
 
     @Test
@@ -2,110 +2,325 @@ package aoc2023;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class Day03 {
 
     static int solve1(String input) {
-        var result = 0;
-        var lines = input.split("\n");
-        var map = new LinkedHashMap<Pos, String>();
-        for (int row = 0; row < lines.length; row++) {
-            var line = lines[row];
-            var cells = line.split("");
-            for (int col = 0; col < cells.length; col++) {
-                var cell = cells[col];
-                if (Character.isDigit(cell.charAt(0))) {
-                    var start = col;
-                    while (col < line.length() && Character.isDigit(line.charAt(col))) {
-                        col++;
+        return Math.toIntExact(NumberLabels.of(CharGrid.parse(input)).totals().partSum());
+    }
+
+    static int solve2(String input) {
+        return Math.toIntExact(NumberLabels.of(CharGrid.parse(input)).totals().gearRatioSum());
+    }
+
+    record Totals(long partSum, long gearRatioSum) {
+    }
+
+    /**
+     * Like {@link #solve1} and {@link #solve2} in one go, for big schematics: rows are split into bands of
+     * {@code bandHeight} rows that are processed in parallel.
+     */
+    static Totals solveParallel(CharGrid grid, int bandHeight) {
+        return NumberLabels.ofParallel(grid, bandHeight).totalsParallel();
+    }
+
+    /**
+     * Each cell labeled with the id of the number covering it, and the values of the numbers by id. With that, the
+     * numbers next to a symbol are just the distinct ids of the eight cells around it, no need to look for where a
+     * number starts or parse it again.
+     * <p>
+     * Rows are split into bands, each band labels its own rows with its own ids (numbers never span rows). Bands
+     * can be labeled in parallel, and then also be totaled in parallel: a band looks at its own symbols, reading
+     * the labels of the row above and below it as a halo. So every symbol and gear is counted by exactly one band.
+     */
+    static final class NumberLabels {
+        private final CharGrid grid;
+        private final int bandHeight;
+        // Id of the number covering each cell (within the band of the row), 0 for no number
+        final IntGrid ids;
+        private final Band[] bands;
+
+        /**
+         * @param values  value of each number by id, index 0 is unused
+         * @param symbols symbols of the band, as y * width + x
+         */
+        private record Band(long[] values, int[] symbols) {
+        }
+
+        private NumberLabels(CharGrid grid, int bandHeight) {
+            this.grid = grid;
+            this.bandHeight = bandHeight;
+            this.ids = new IntGrid(grid.width(), grid.height());
+            this.bands = new Band[Math.max(1, (grid.height() + bandHeight - 1) / bandHeight)];
+        }
+
+        static NumberLabels of(CharGrid grid) {
+            var labels = new NumberLabels(grid, Math.max(1, grid.height()));
+            labels.labelBand(0);
+            return labels;
+        }
+
+        static NumberLabels ofParallel(CharGrid grid, int bandHeight) {
+            var labels = new NumberLabels(grid, bandHeight);
+            IntStream.range(0, labels.bands.length).parallel().forEach(labels::labelBand);
+            return labels;
+        }
+
+        long value(int x, int y) {
+            return bands[y / bandHeight].values()[ids.get(x, y)];
+        }
+
+        private void labelBand(int band) {
+            var width = grid.width();
+            var values = new long[64];
+            var nextId = 1;
+            var symbols = new int[64];
+            var symbolCount = 0;
+            var toRow = Math.min(grid.height(), (band + 1) * bandHeight);
+            for (int y = band * bandHeight; y < toRow; y++) {
+                var id = 0;
+                for (int x = 0; x < width; x++) {
+                    var c = grid.get(x, y);
+                    if (c >= '0' && c <= '9') {
+                        if (id == 0) {
+                            id = nextId++;
+                            if (id == values.length) {
+                                values = Arrays.copyOf(values, values.length * 2);
+                            }
+                        }
+                        values[id] = values[id] * 10 + (c - '0');
+                        ids.set(x, y, id);
+                    } else {
+                        id = 0;
+                        if (c != '.') {
+                            if (symbolCount == symbols.length) {
+                                symbols = Arrays.copyOf(symbols, symbols.length * 2);
+                            }
+                            symbols[symbolCount++] = y * width + x;
+                        }
                     }
-                    var number = line.substring(start, col);
-                    // TODO: Don't use col, use another variable instead
-                    col--;
-                    map.put(new Pos(start, row), number);
-                } else if (!cell.equals(".")) {
-                    map.put(new Pos(col, row), cell);
                 }
             }
+            bands[band] = new Band(Arrays.copyOf(values, nextId), Arrays.copyOf(symbols, symbolCount));
+        }
+
+        Totals totals() {
+            var partSum = 0L;
+            var gearRatioSum = 0L;
+            for (int band = 0; band < bands.length; band++) {
+                var totals = totals(band);
+                partSum += totals.partSum();
+                gearRatioSum += totals.gearRatioSum();
+            }
+            return new Totals(partSum, gearRatioSum);
         }
 
-        for (Map.Entry<Pos, String> entry : map.entrySet()) {
-            var value = entry.getValue();
-            if (Character.isDigit(value.charAt(0))) {
-                var pos = entry.getKey();
-                for (int y = pos.y() - 1; y <= pos.y() + 1; y++) {
-                    for (int x = pos.x() - 1; x <= pos.x() + value.length(); x++) {
-                        if (!Character.isDigit(map.getOrDefault(new Pos(x, y), "0").charAt(0))) {
-                            result += Integer.valueOf(value);
+        Totals totalsParallel() {
+            return IntStream.range(0, bands.length).parallel().mapToObj(this::totals)
+                    .reduce(new Totals(0, 0), (a, b) -> new Totals(a.partSum() + b.partSum(), a.gearRatioSum() + b.gearRatioSum()));
+        }
+
+        /**
+         * Looks at the symbols of a band only: each adds the numbers next to it, and each '*' next to exactly two
+         * numbers adds its gear ratio.
+         */
+        private Totals totals(int band) {
+            var width = grid.width();
+            var symbols = bands[band].symbols();
+            var partSum = 0L;
+            var gearRatioSum = 0L;
+            // Ids are only unique within a band, so the band is part of the key
+            var seen = new long[8];
+            for (int symbol : symbols) {
+                var x = symbol % width;
+                var y = symbol / width;
+                var count = 0;
+                var sum = 0L;
+                var product = 1L;
+                for (int dy = -1; dy <= 1; dy++) {
+                    for (int dx = -1; dx <= 1; dx++) {
+                        var id = ids.getOrDefault(x + dx, y + dy, 0);
+                        if (id == 0) {
+                            continue;
                         }
+                        var key = (long) ((y + dy) / bandHeight) << 32 | id;
+                        if (contains(seen, count, key)) {
+                            continue;
+                        }
+                        seen[count++] = key;
+                        var value = value(x + dx, y + dy);
+                        sum += value;
+                        product *= value;
                     }
                 }
+                partSum += sum;
+                if (grid.get(x, y) == '*' && count == 2) {
+                    gearRatioSum += product;
+                }
             }
+            return new Totals(partSum, gearRatioSum);
         }
 
-        return result;
+        private static boolean contains(long[] array, int length, long value) {
+            for (int i = 0; i < length; i++) {
+                if (array[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 
-    static int solve2(String input) {
-        var result = 0;
-        var lines = input.split("\n");
-        var map = new LinkedHashMap<Pos, String>();
-        for (int row = 0; row < lines.length; row++) {
-            var line = lines[row];
-            var cells = line.split("");
-            for (int col = 0; col < cells.length; col++) {
-                var cell = cells[col];
-                if (!cell.equals(".")) {
-                    map.put(new Pos(col, row), cell);
-                }
+    /**
+     * Like {@link NumberLabels}, but streaming instead of needing the whole schematic in memory.
+     */
+    static Totals scan(CharSequence input) {
+        var window = new RowWindow();
+        var lineStart = 0;
+        var length = input.length();
+        for (int i = 0; i < length; i++) {
+            if (input.charAt(i) == '\n') {
+                window.add(input, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        if (lineStart < length) {
+            window.add(input, lineStart, length);
+        }
+        return window.finish();
+    }
+
+    /**
+     * Like {@link #scan(CharSequence)}, but for schematics that don't fit into memory.
+     */
+    static Totals scan(Reader reader) {
+        var window = new RowWindow();
+        try (var lines = new BufferedReader(reader)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                window.add(line, 0, line.length());
             }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+        return window.finish();
+    }
 
-        for (Map.Entry<Pos, String> entry : map.entrySet()) {
-            var value = entry.getValue();
-            if (value.equals("*")) {
-                var entryPos = entry.getKey();
+    /**
+     * Goes over a schematic row by row, keeping only three rows: a symbol can only touch numbers in its own row and
+     * the rows directly above and below. So a row is done as soon as the row below it is added, and memory only
+     * depends on the width, not the height of the schematic.
+     */
+    static final class RowWindow {
+        // Row buffers are reused, with a length because rows don't have to be equally long
+        private byte[] above = new byte[0];
+        private byte[] center = new byte[0];
+        private byte[] below = new byte[0];
+        private int aboveLength = 0;
+        private int centerLength = 0;
+        private int belowLength = 0;
+        private int rows = 0;
+        private long partSum = 0;
+        private long gearRatioSum = 0;
 
-                var numbers = getNumbers(entryPos, value, map);
-                if (numbers.size() == 2) {
-                    result += numbers.get(0) * numbers.get(1);
-                }
+        void add(CharSequence line, int from, int to) {
+            var reuse = above;
+            above = center;
+            aboveLength = centerLength;
+            center = below;
+            centerLength = belowLength;
+            var length = to - from;
+            below = reuse.length >= length ? reuse : new byte[length];
+            for (int i = 0; i < length; i++) {
+                below[i] = (byte) line.charAt(from + i);
+            }
+            belowLength = length;
+            rows++;
+            if (rows >= 2) {
+                processCenter();
             }
         }
 
-        return result;
-    }
+        Totals finish() {
+            if (rows >= 1) {
+                add("", 0, 0);
+                // Don't count the empty row as a row, so that calling finish again doesn't process anything
+                rows = 0;
+            }
+            return new Totals(partSum, gearRatioSum);
+        }
 
-    private static List<Integer> getNumbers(Pos entryPos, String value, LinkedHashMap<Pos, String> map) {
-        var numbers = new ArrayList<Integer>();
-
-        var checked = new HashSet<Pos>();
-        for (int y = entryPos.y() - 1; y <= entryPos.y() + 1; y++) {
-            for (int x = entryPos.x() - 1; x <= entryPos.x() + value.length(); x++) {
-                var pos = new Pos(x, y);
-                if (!checked.contains(pos) && Character.isDigit(map.getOrDefault(pos, " ").charAt(0))) {
-                    var start = pos;
-                    while (Character.isDigit(map.getOrDefault(start.plus(new Pos(-1, 0)), " ").charAt(0))) {
-                        start = start.plus(new Pos(-1, 0));
-                    }
-                    var end = start;
-                    checked.add(start);
-                    var number = new StringBuilder(map.get(start));
-                    while (Character.isDigit(map.getOrDefault(end.plus(new Pos(1, 0)), " ").charAt(0))) {
-                        var next = end.plus(new Pos(1, 0));
-                        checked.add(next);
-                        number.append(map.get(next));
-                        end = next;
+        private void processCenter() {
+            for (int x = 0; x < centerLength; x++) {
+                var c = center[x];
+                if (c == '.' || isDigit(c)) {
+                    continue;
+                }
+                // Every symbol adds all numbers next to it, so a number next to two symbols counts twice (like
+                // the original solution did)
+                var count = 0;
+                var sum = 0L;
+                var product = 1L;
+                for (int row = 0; row < 3; row++) {
+                    var cells = row == 0 ? above : row == 1 ? center : below;
+                    var length = row == 0 ? aboveLength : row == 1 ? centerLength : belowLength;
+                    if (isDigit(cells, length, x)) {
+                        // One number covering the middle, it might go to the left and right too
+                        var number = numberAt(cells, length, x);
+                        count++;
+                        sum += number;
+                        product *= number;
+                    } else {
+                        if (isDigit(cells, length, x - 1)) {
+                            var number = numberAt(cells, length, x - 1);
+                            count++;
+                            sum += number;
+                            product *= number;
+                        }
+                        if (isDigit(cells, length, x + 1)) {
+                            var number = numberAt(cells, length, x + 1);
+                            count++;
+                            sum += number;
+                            product *= number;
+                        }
                     }
-
-                    numbers.add(Integer.valueOf(number.toString()));
                 }
+                partSum += sum;
+                if (c == '*' && count == 2) {
+                    gearRatioSum += product;
+                }
+            }
+        }
+
+        private static boolean isDigit(byte[] cells, int length, int x) {
+            return x >= 0 && x < length && isDigit(cells[x]);
+        }
+
+        private static boolean isDigit(byte c) {
+            return c >= '0' && c <= '9';
+        }
+
+        // Value of the number covering x
+        private static long numberAt(byte[] cells, int length, int x) {
+            var start = x;
+            while (isDigit(cells, length, start - 1)) {
+                start--;
+            }
+            var number = 0L;
+            for (int i = start; isDigit(cells, length, i); i++) {
+                number = number * 10 + (cells[i] - '0');
             }
+            return number;
         }
-        return numbers;
     }
 
     @Test
@@ -124,6 +339,26 @@ public class Day03 {
                 """;
         assertEquals(4361, solve1(s));
         assertEquals(467835, solve2(s));
+        assertEquals(new Totals(4361, 467835), scan(new StringReader(s)));
+        assertEquals(new Totals(4361, 467835), scan(s));
+        for (int bandHeight = 1; bandHeight <= 4; bandHeight++) {
+            assertEquals(new Totals(4361, 467835), solveParallel(CharGrid.parse(s), bandHeight));
+        }
+    }
+
+    @Test
+    void wideNumbers() {
+        // Numbers with more digits than fit into an int
+        var s = """
+                1234567890*2....
+                ................
+                9876543210123#..
+                """;
+        var expected = new Totals(1234567890L + 2 + 9876543210123L, 1234567890L * 2);
+        assertEquals(expected, NumberLabels.of(CharGrid.parse(s)).totals());
+        assertEquals(expected, solveParallel(CharGrid.parse(s), 1));
+        assertEquals(expected, scan(s));
+        assertEquals(expected, scan(new StringReader(s)));
     }
 
     @Test
@@ -2,62 +2,160 @@ package aoc2023;
 
 import org.junit.jupiter.api.Test;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class Day04 {
 
-    static int solve1(String input) {
-        var sum = 0;
-        var lines = input.split("\n");
-        for (var line : lines) {
-            var parts = line.split(": ");
-            var sides = parts[1].split(" \\| ");
-            var winners = Parsing.numbers(sides[0]);
-            var scratched = Parsing.numbers(sides[1]);
-            var matching = new HashSet<>(winners);
-            matching.retainAll(scratched);
-            if (!matching.isEmpty()) {
-                sum += (int) Math.pow(2, matching.size() - 1);
+    static long solve1(String input) {
+        var sum = 0L;
+        for (int matches : matchCounts(input)) {
+            if (matches > 63) {
+                // Cards with numbers of any size can have that many matches, but the points don't fit into a long
+                throw new ArithmeticException("Points of a card with " + matches + " matches overflow a long");
+            }
+            if (matches > 0) {
+                sum = Math.addExact(sum, 1L << (matches - 1));
             }
         }
         return sum;
     }
 
-    static int solve2(String input) {
-        var cardWins = new LinkedHashMap<Integer, Integer>();
-        var cardCounts = new HashMap<Integer, Integer>();
-
-        var lines = input.split("\n");
-        for (int i = 0; i < lines.length; i++) {
-            var line = lines[i];
-            var parts = line.split(": ");
-            var sides = parts[1].split(" \\| ");
-            var winners = Parsing.numbers(sides[0]);
-            var scratched = Parsing.numbers(sides[1]);
-            var matching = new HashSet<>(winners);
-            matching.retainAll(scratched);
+    static long solve2(String input) {
+        var matchCounts = matchCounts(input);
+        // Card i with count copies wins count more of each card i + 1 to i + matches. Instead of adding to each of
+        // them, add to a running total at i + 1 and take it away again after i + matches.
+        var diff = new long[matchCounts.length + 1];
+        var running = 0L;
+        var total = 0L;
+        for (int i = 0; i < matchCounts.length; i++) {
+            running += diff[i];
+            var count = 1 + running;
+            total += count;
+            var matches = matchCounts[i];
+            if (matches > 0) {
+                diff[i + 1] += count;
+                // Cards won past the end of the table don't exist
+                diff[Math.min(i + matches + 1, matchCounts.length)] -= count;
+            }
+        }
+        return total;
+    }
 
-            cardWins.put(i, matching.size());
-            cardCounts.put(i, 1);
+    /**
+     * @return for each card, how many of its winning numbers it has
+     */
+    static int[] matchCounts(String input) {
+        var counts = new int[256];
+        var cards = 0;
+        var winners = new int[16];
+        var numbers = new int[32];
+        var matcher = new Matcher();
+        var lineStart = 0;
+        while (lineStart < input.length()) {
+            var lineEnd = input.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = input.length();
+            }
+            // Only look within the line, a line without them would pick up the next line's
+            var colon = input.indexOf(':', lineStart, lineEnd);
+            var bar = input.indexOf('|', lineStart, lineEnd);
+            if (colon < 0 || bar < colon) {
+                throw new IllegalArgumentException("Expected a card like \"Card 1: 41 48 | 83 86\" at offset " + lineStart);
+            }
+            var winnerCount = Parsing.numbers(input, colon + 1, bar, winners);
+            if (winnerCount > winners.length) {
+                winners = new int[winnerCount * 2];
+                Parsing.numbers(input, colon + 1, bar, winners);
+            }
+            var numberCount = Parsing.numbers(input, bar + 1, lineEnd, numbers);
+            if (numberCount > numbers.length) {
+                numbers = new int[numberCount * 2];
+                Parsing.numbers(input, bar + 1, lineEnd, numbers);
+            }
+            if (cards == counts.length) {
+                counts = Arrays.copyOf(counts, cards * 2);
+            }
+            counts[cards++] = matcher.matches(winners, winnerCount, numbers, numberCount);
+            lineStart = lineEnd + 1;
         }
+        return Arrays.copyOf(counts, cards);
+    }
 
-        for (var entry : cardWins.entrySet()) {
-            var cardIndex = entry.getKey();
-            var count = cardCounts.get(cardIndex);
-            var winningNumbers = entry.getValue();
+    /**
+     * Counts the distinct winning numbers of a card, using the winning numbers as a bitmap instead of a set. Numbers
+     * below 128 (all of them in the puzzle) fit into two longs. For bigger ones, there's a long[] bitmap that grows
+     * as needed and is reused for the next card.
+     */
+    static final class Matcher {
+        private long[] bitmap = new long[0];
 
-            if (winningNumbers > 0) {
-                for (int i = cardIndex + 1; i <= cardIndex + winningNumbers; i++) {
-                    cardCounts.put(i, cardCounts.get(i) + count);
+        int matches(int[] winners, int winnerCount, int[] numbers, int numberCount) {
+            var small = true;
+            for (int i = 0; i < winnerCount && small; i++) {
+                small = winners[i] >= 0 && winners[i] < 128;
+            }
+            for (int i = 0; i < numberCount && small; i++) {
+                small = numbers[i] >= 0 && numbers[i] < 128;
+            }
+            if (small) {
+                long winnersLow = 0;
+                long winnersHigh = 0;
+                for (int i = 0; i < winnerCount; i++) {
+                    var n = winners[i];
+                    // Shifts only use the lowest 6 bits, so n and n - 64 set the same bit
+                    if (n < 64) {
+                        winnersLow |= 1L << n;
+                    } else {
+                        winnersHigh |= 1L << n;
+                    }
+                }
+                long numbersLow = 0;
+                long numbersHigh = 0;
+                for (int i = 0; i < numberCount; i++) {
+                    var n = numbers[i];
+                    if (n < 64) {
+                        numbersLow |= 1L << n;
+                    } else {
+                        numbersHigh |= 1L << n;
+                    }
                 }
+                return Long.bitCount(winnersLow & numbersLow) + Long.bitCount(winnersHigh & numbersHigh);
             }
+            return matchesWide(winners, winnerCount, numbers, numberCount);
         }
 
-        return cardCounts.values().stream().mapToInt(Integer::intValue).sum();
+        private int matchesWide(int[] winners, int winnerCount, int[] numbers, int numberCount) {
+            for (int i = 0; i < winnerCount; i++) {
+                if (winners[i] < 0) {
+                    throw new IllegalArgumentException("Negative number: " + winners[i]);
+                }
+                var word = winners[i] >>> 6;
+                if (word >= bitmap.length) {
+                    bitmap = Arrays.copyOf(bitmap, Math.max(word + 1, bitmap.length * 2));
+                }
+                bitmap[word] |= 1L << winners[i];
+            }
+            var matches = 0;
+            for (int i = 0; i < numberCount; i++) {
+                var n = numbers[i];
+                var word = n >>> 6;
+                if (n >= 0 && word < bitmap.length && (bitmap[word] & (1L << n)) != 0) {
+                    matches++;
+                    // So that the same number twice only counts once
+                    bitmap[word] &= ~(1L << n);
+                }
+            }
+            // Clear for the next card
+            for (int i = 0; i < winnerCount; i++) {
+                bitmap[winners[i] >>> 6] = 0;
+            }
+            return matches;
+        }
     }
 
     @Test
@@ -74,6 +172,26 @@ public class Day04 {
         assertEquals(30, solve2(s));
     }
 
+    @Test
+    void wideNumbers() {
+        var matcher = new Matcher();
+        assertEquals(2, matcher.matches(new int[]{5, 1000, 99999}, 3, new int[]{99999, 7, 1000, 1000, 64}, 5));
+        assertEquals(1, matcher.matches(new int[]{64, 1000}, 2, new int[]{64, 127, 5}, 3));
+
+        // 40 matches, more than an int shift can take
+        var numbers = IntStream.range(0, 40).map(i -> 1000 + i).mapToObj(String::valueOf).collect(Collectors.joining(" "));
+        assertEquals(1L << 39, solve1("Card 1: " + numbers + " | " + numbers + "\n"));
+    }
+
+    @Test
+    void malformed() {
+        // No colon, the next line's must not be used
+        assertThrows(IllegalArgumentException.class, () -> matchCounts("Card 1 41 48 | 83 86\nCard 2: 13 32 | 61 30\n"));
+        assertThrows(IllegalArgumentException.class, () -> matchCounts("Card 1: 41 48 83 86\nCard 2: 13 32 | 61 30\n"));
+        assertThrows(IllegalArgumentException.class, () -> matchCounts("Card 1| 41 48 : 83 86\n"));
+        assertThrows(IllegalArgumentException.class, () -> matchCounts("Card 1: 41 48 83 86"));
+    }
+
     @Test
     void input() {
         var input = Resources.readString(Resources.class.getResource("/day04.txt"));
@@ -3,12 +3,237 @@ package aoc2023;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class Day05 {
 
     record Almanac(Map<String, Mappings> typeToMappings, Map<String, String> sourceToDestinations) {
+        /**
+         * @return the mappings from seed to location, in the order they need to be applied
+         */
+        List<Mappings> chain() {
+            return chain("seed", "location");
+        }
+
+        List<Mappings> chain(String from, String to) {
+            var chain = new ArrayList<Mappings>();
+            var type = from;
+            while (!type.equals(to)) {
+                chain.add(typeToMappings.get(type));
+                type = sourceToDestinations.get(type);
+            }
+            return chain;
+        }
+
+        SeedToLocation seedToLocation() {
+            return SeedToLocation.compose(chain());
+        }
+
+        /**
+         * @return the almanac the other way around, e.g. with location-to-humidity instead of humidity-to-location
+         */
+        Almanac inverse() {
+            var inverseMappings = new HashMap<String, Mappings>();
+            var destinationToSources = new HashMap<String, String>();
+            for (var entry : sourceToDestinations.entrySet()) {
+                inverseMappings.put(entry.getValue(), typeToMappings.get(entry.getKey()).inverse());
+                destinationToSources.put(entry.getValue(), entry.getKey());
+            }
+            return new Almanac(inverseMappings, destinationToSources);
+        }
+
+        /**
+         * Lowest location of any seed in the ranges, found by going from locations back to seeds: composing the
+         * inverse mappings gives the location ranges in ascending order, each with the seeds they come from. The
+         * first location range whose seeds overlap a seed range has the answer, so this stops after looking at as
+         * many location ranges as needed, no matter how many seeds there are.
+         * <p>
+         * Only works if each map is a permutation (every number is the destination of exactly one number), like in
+         * the puzzle input.
+         */
+        long lowestLocationSearch(List<Range> seedRanges) {
+            var seeds = merge(seedRanges);
+            var locationToSeed = SeedToLocation.compose(inverse().chain("location", "seed"));
+            var starts = locationToSeed.starts;
+            var offsets = locationToSeed.offsets;
+            for (int i = 0; i < starts.length; i++) {
+                var offset = offsets[i];
+                var seedStart = starts[i] + offset;
+                var seedEnd = i + 1 < starts.length ? starts[i + 1] + offset : Long.MAX_VALUE;
+                var range = firstEndingAfter(seeds, seedStart);
+                if (range < seeds.size() && seeds.get(range).start() < seedEnd) {
+                    return Math.max(seedStart, seeds.get(range).start()) - offset;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+
+        // Sorted, non-empty and not overlapping
+        private static List<Range> merge(List<Range> ranges) {
+            var sorted = ranges.stream().filter(r -> r.start() < r.end())
+                    .sorted(Comparator.comparingLong(Range::start)).toList();
+            var merged = new ArrayList<Range>();
+            for (var range : sorted) {
+                if (!merged.isEmpty() && merged.getLast().end() >= range.start()) {
+                    var last = merged.removeLast();
+                    merged.add(new Range(last.start(), Math.max(last.end(), range.end())));
+                } else {
+                    merged.add(range);
+                }
+            }
+            return merged;
+        }
+
+        private static int firstEndingAfter(List<Range> ranges, long number) {
+            int low = 0;
+            int high = ranges.size();
+            while (low < high) {
+                int mid = (low + high) / 2;
+                if (ranges.get(mid).end() <= number) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * All mappings from seed to location composed into one function. Each mapping only adds an offset to a range of
+     * numbers, so the composition does too: the seeds from starts[i] up to starts[i + 1] map to seed + offsets[i]. So
+     * a lookup is a single binary search, no matter how many mappings there are.
+     * <p>
+     * Composing the inverse mappings (see {@link Almanac#inverse}) gives the function from location to seed instead.
+     */
+    static final class SeedToLocation {
+        private final long[] starts;
+        private final long[] offsets;
+
+        private SeedToLocation(long[] starts, long[] offsets) {
+            this.starts = starts;
+            this.offsets = offsets;
+        }
+
+        static SeedToLocation compose(List<Mappings> chain) {
+            // Identity to start with, the seeds are never negative
+            var function = new SeedToLocation(new long[]{0}, new long[]{0});
+            for (var mappings : chain) {
+                function = function.andThen(mappings);
+            }
+            return function;
+        }
+
+        private SeedToLocation andThen(Mappings mappings) {
+            var builder = new Builder(starts.length * 2);
+            var pieces = new ArrayList<Range>();
+            for (int i = 0; i < starts.length; i++) {
+                var start = starts[i];
+                var offset = offsets[i];
+                // The last segment goes on forever, stop at the end of the numbers instead
+                var length = i + 1 < starts.length ? starts[i + 1] - start : Long.MAX_VALUE - start;
+                var imageStart = start + offset;
+                var imageEnd = length > Long.MAX_VALUE - imageStart ? Long.MAX_VALUE : imageStart + length;
+                pieces.clear();
+                mappings.calculate(new Range(imageStart, imageEnd), pieces);
+                // The pieces are in the same order as the numbers they come from, so they can be lined up again
+                var pieceStart = start;
+                for (var piece : pieces) {
+                    builder.add(pieceStart, piece.start() - pieceStart);
+                    pieceStart += piece.end() - piece.start();
+                }
+            }
+            return builder.build();
+        }
+
+        int segments() {
+            return starts.length;
+        }
+
+        long location(long seed) {
+            return seed + offsets[segmentOf(seed)];
+        }
+
+        /**
+         * {@link #location} for many seeds at once.
+         */
+        long[] locations(long[] seeds) {
+            var result = new long[seeds.length];
+            for (int i = 0; i < seeds.length; i++) {
+                result[i] = location(seeds[i]);
+            }
+            return result;
+        }
+
+        /**
+         * @return the lowest location of any seed in the ranges, looking at each segment once instead of each seed
+         */
+        long lowestLocation(List<Range> seedRanges) {
+            var lowest = Long.MAX_VALUE;
+            for (var range : seedRanges) {
+                if (range.start() >= range.end()) {
+                    continue;
+                }
+                // Within a segment, the lowest seed has the lowest location
+                for (int i = segmentOf(range.start()); i < starts.length && starts[i] < range.end(); i++) {
+                    var seed = Math.max(range.start(), starts[i]);
+                    lowest = Math.min(lowest, seed + offsets[i]);
+                }
+            }
+            return lowest;
+        }
+
+        private int segmentOf(long seed) {
+            if (seed < 0) {
+                throw new IllegalArgumentException("Negative seed: " + seed);
+            }
+            var index = Arrays.binarySearch(starts, seed);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        // Collects segments, merging neighbors with the same offset
+        private static final class Builder {
+            private long[] starts;
+            private long[] offsets;
+            private int size = 0;
+
+            Builder(int capacity) {
+                starts = new long[capacity];
+                offsets = new long[capacity];
+            }
+
+            void add(long start, long offset) {
+                if (size > 0 && offsets[size - 1] == offset) {
+                    return;
+                }
+                if (size == starts.length) {
+                    starts = Arrays.copyOf(starts, size * 2);
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                }
+                starts[size] = start;
+                offsets[size] = offset;
+                size++;
+            }
+
+            SeedToLocation build() {
+                return new SeedToLocation(Arrays.copyOf(starts, size), Arrays.copyOf(offsets, size));
+            }
+        }
+    }
+
+    /**
+     * The numbers from start (inclusive) to end (exclusive).
+     */
+    record Range(long start, long end) {
     }
 
     record Mappings(List<Mapping> mappings) {
@@ -36,9 +261,62 @@ public class Day05 {
 //            var found = mappings.stream().filter(m -> m.contains(number)).findFirst();
 //            return found.map(m -> m.map(number)).orElse(number);
         }
+
+        /**
+         * Like {@link #calculate} for all numbers of a range at once. The range is split where mappings start and
+         * end, and each piece is mapped as a whole, so this only depends on the number of mappings it overlaps.
+         */
+        void calculate(Range range, List<Range> result) {
+            var at = range.start();
+            var end = range.end();
+            for (int i = firstEndingAfter(at); i < mappings.size() && at < end; i++) {
+                var mapping = mappings.get(i);
+                if (mapping.sourceStart() >= end) {
+                    break;
+                }
+                if (at < mapping.sourceStart()) {
+                    // Gap between mappings, numbers stay the same
+                    result.add(new Range(at, mapping.sourceStart()));
+                    at = mapping.sourceStart();
+                }
+                var to = Math.min(end, mapping.sourceStart() + mapping.rangeLength());
+                result.add(new Range(mapping.map(at), mapping.map(to)));
+                at = to;
+            }
+            if (at < end) {
+                result.add(new Range(at, end));
+            }
+        }
+
+        /**
+         * @return the mappings from destination to source
+         */
+        Mappings inverse() {
+            return new Mappings(mappings.stream().map(Mapping::inverse).sorted().toList());
+        }
+
+        // Index of the first mapping that ends after number, or the number of mappings if there is none
+        private int firstEndingAfter(long number) {
+            int low = 0;
+            int high = mappings.size();
+            while (low < high) {
+                int mid = (low + high) / 2;
+                var mapping = mappings.get(mid);
+                if (mapping.sourceStart() + mapping.rangeLength() <= number) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
     }
 
     record Mapping(long sourceStart, long destinationStart, long rangeLength) implements Comparable<Mapping> {
+        Mapping inverse() {
+            return new Mapping(destinationStart, sourceStart, rangeLength);
+        }
+
         boolean contains(long number) {
             return number >= sourceStart && number < sourceStart + rangeLength;
         }
@@ -54,55 +332,141 @@ public class Day05 {
     }
 
     static long solve1(String input) {
-        var almanac = parse(input);
+        var seedToLocation = parse(input).seedToLocation();
         var seeds = Parsing.numbersLong(input.split("\n")[0]);
+        var locations = seedToLocation.locations(seeds.stream().mapToLong(Long::longValue).toArray());
+        return Arrays.stream(locations).min().getAsLong();
+    }
 
-        var results = new ArrayList<Long>();
+    static long solve2(String input) {
+        var almanac = parse(input);
+        var ranges = seedRanges(input);
 
-        for (Long seed : seeds) {
-            var type = "seed";
-            var id = seed;
-            while (!type.equals("location")) {
-                id = almanac.typeToMappings.get(type).calculate(id);
-                type = almanac.sourceToDestinations.get(type);
+        for (var mappings : almanac.chain()) {
+            var next = new ArrayList<Range>();
+            for (var range : ranges) {
+                mappings.calculate(range, next);
             }
-            results.add(id);
+            ranges = next;
         }
 
-        return results.stream().mapToLong(Long::valueOf).min().getAsLong();
+        return ranges.stream().mapToLong(Range::start).min().orElse(Long.MAX_VALUE);
     }
 
-    static long solve2(String input) {
-        var almanac = parse(input);
-        var typeToMappings = almanac.typeToMappings;
-        var sourceToDestinations = almanac.sourceToDestinations;
-        var firstLine = Parsing.numbersLong(input.split("\n")[0]);
+    /**
+     * {@link #solve2} by looking at each seed, to check the faster solutions against.
+     */
+    static long solve2BruteForce(String input) {
+        return new BruteForceScan(parse(input), seedRanges(input)).run(ForkJoinPool.commonPool());
+    }
 
-        var lowest = Long.MAX_VALUE;
-//        var results = new HashMap<Long, Long>();
+    // The seeds line of part 2, pairs of start and count
+    static List<Range> seedRanges(String input) {
+        var firstLine = Parsing.numbersLong(input.split("\n")[0]);
+        var ranges = new ArrayList<Range>();
         for (int i = 0; i < firstLine.size(); i += 2) {
             var start = firstLine.get(i);
             var count = firstLine.get(i + 1);
+            ranges.add(new Range(start, start + count));
+        }
+        return ranges;
+    }
+
+    /**
+     * Maps every single seed through the mappings, split into chunks that run in parallel on a ForkJoinPool. This
+     * can take a long time for big almanacs, so {@link #progress} can be polled from another thread while it runs,
+     * and {@link #cancel} stops it. A scan can only run once.
+     */
+    static final class BruteForceScan {
+        // Seeds per task, small enough to split big ranges evenly, big enough to not spend the time on tasks
+        private static final long CHUNK_SIZE = 1 << 16;
 
-            for (long seed = start; seed < start + count; seed++) {
-//                if (results.containsKey(seed)) {
-//                    continue;
-//                }
-                var type = "seed";
-                var id = seed;
-                while (!type.equals("location")) {
-                    id = typeToMappings.get(type).calculate(id);
-                    type = sourceToDestinations.get(type);
+        private final Mappings[] chain;
+        private final List<Range> seedRanges;
+        private final long total;
+        private final LongAdder scanned = new LongAdder();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile boolean cancelled = false;
+        private volatile long startNanos = 0;
+
+        record Progress(long scanned, long total, double seedsPerSecond) {
+            double percent() {
+                return total == 0 ? 100 : 100.0 * scanned / total;
+            }
+        }
+
+        BruteForceScan(Almanac almanac, List<Range> seedRanges) {
+            this.chain = almanac.chain().toArray(Mappings[]::new);
+            this.seedRanges = seedRanges;
+            this.total = seedRanges.stream().mapToLong(r -> Math.max(0, r.end() - r.start())).sum();
+        }
+
+        /**
+         * @return the lowest location, or {@link Long#MAX_VALUE} if there are no seeds
+         * @throws CancellationException if cancelled
+         * @throws IllegalStateException if the scan ran already, progress would be wrong otherwise
+         */
+        long run(ForkJoinPool pool) {
+            if (!started.compareAndSet(false, true)) {
+                throw new IllegalStateException("Scan can only run once, create a new one");
+            }
+            startNanos = System.nanoTime();
+            var tasks = seedRanges.stream().map(r -> new Chunk(r.start(), r.end())).toList();
+            // Submitted so that invokeAll runs in the pool
+            var lowest = pool.submit(() -> ForkJoinTask.invokeAll(tasks).stream().mapToLong(ForkJoinTask::join)
+                    .min().orElse(Long.MAX_VALUE)).join();
+            if (cancelled) {
+                throw new CancellationException("Cancelled after " + scanned.sum() + " of " + total + " seeds");
+            }
+            return lowest;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        Progress progress() {
+            var seeds = scanned.sum();
+            var seconds = startNanos == 0 ? 0 : (System.nanoTime() - startNanos) / 1e9;
+            return new Progress(seeds, total, seconds > 0 ? seeds / seconds : 0);
+        }
+
+        @SuppressWarnings("serial")
+        private final class Chunk extends RecursiveTask<Long> {
+            private final long from;
+            private final long to;
+
+            Chunk(long from, long to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected Long compute() {
+                if (cancelled) {
+                    return Long.MAX_VALUE;
+                }
+                if (to - from > CHUNK_SIZE) {
+                    var middle = from + (to - from) / 2;
+                    var left = new Chunk(from, middle);
+                    left.fork();
+                    var right = new Chunk(middle, to).compute();
+                    return Math.min(left.join(), right);
                 }
-                if (id < lowest) {
-                    lowest = id;
+                var lowest = Long.MAX_VALUE;
+                for (long seed = from; seed < to; seed++) {
+                    var id = seed;
+                    for (var mappings : chain) {
+                        id = mappings.calculate(id);
+                    }
+                    if (id < lowest) {
+                        lowest = id;
+                    }
                 }
-//                results.put(seed, id);
+                scanned.add(Math.max(0, to - from));
+                return lowest;
             }
         }
-        return lowest;
-
-//        return results.values().stream().mapToLong(Long::valueOf).min().getAsLong();
     }
 
     static Almanac parse(String input) {
@@ -172,6 +536,26 @@ public class Day05 {
                 """;
         assertEquals(35, solve1(s));
         assertEquals(46, solve2(s));
+        assertEquals(46, solve2BruteForce(s));
+        var scan = new BruteForceScan(parse(s), seedRanges(s));
+        assertEquals(46, scan.run(ForkJoinPool.commonPool()));
+        assertEquals(100, scan.progress().percent());
+        assertThrows(IllegalStateException.class, () -> scan.run(ForkJoinPool.commonPool()));
+        var cancelled = new BruteForceScan(parse(s), seedRanges(s));
+        cancelled.cancel();
+        assertThrows(CancellationException.class, () -> cancelled.run(ForkJoinPool.commonPool()));
+
+        var seedToLocation = parse(s).seedToLocation();
+        assertArrayEquals(new long[]{82, 43, 86, 35}, seedToLocation.locations(new long[]{79, 14, 55, 13}));
+        var seedRanges = List.of(new Range(79, 79 + 14), new Range(55, 55 + 13));
+        assertEquals(46, seedToLocation.lowestLocation(seedRanges));
+        var almanac = parse(s);
+        assertEquals(46, almanac.lowestLocationSearch(seedRanges));
+        var seed = 82L;
+        for (var mappings : almanac.inverse().chain("location", "seed")) {
+            seed = mappings.calculate(seed);
+        }
+        assertEquals(79, seed);
     }
 
     @Test
@@ -2,50 +2,137 @@ package aoc2023;
 
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class Day06 {
 
-    static int solve1(String input) {
+    // Largest number whose square fits into a long, so also the largest time for the long version
+    private static final long MAX_LONG_ROOT = 3_037_000_499L;
+
+    static long solve1(String input) {
         var lines = input.split("\n");
-        var times = Parsing.numbers(lines[0]);
-        var distances = Parsing.numbers(lines[1]);
-        var result = 1;
+        var times = Parsing.numbersLong(lines[0]);
+        var distances = Parsing.numbersLong(lines[1]);
+        var result = 1L;
 
         for (int raceIndex = 0; raceIndex < times.size(); raceIndex++) {
             var time = times.get(raceIndex);
             var record = distances.get(raceIndex);
 
-            result *= beatRecord(time, record);
+            result = Math.multiplyExact(result, beatRecord(time, record));
         }
 
         return result;
     }
 
+    static long solve2(String input) {
+        var lines = input.split("\n");
+        var time = joinedDigits(lines[0]);
+        var record = joinedDigits(lines[1]);
+        if (time.length() > 18 || record.length() > 18) {
+            return solve2Big(input).longValueExact();
+        }
+        return beatRecord(Long.parseLong(time), Long.parseLong(record));
+    }
 
-    static int solve2(String input) {
+    /**
+     * Like {@link #solve2}, for races where the joined numbers don't fit into a long.
+     */
+    static BigInteger solve2Big(String input) {
         var lines = input.split("\n");
-        var times = Parsing.numbersLong(lines[0].replaceAll("\\D", ""));
-        var distances = Parsing.numbersLong(lines[1].replaceAll("\\D", ""));
+        var time = new BigInteger(joinedDigits(lines[0]));
+        var record = new BigInteger(joinedDigits(lines[1]));
+        return beatRecord(time, record);
+    }
 
-        var time = times.get(0);
-        var record = distances.get(0);
+    // The digits of a line as one number, ignoring the spaces in between (and the label)
+    private static String joinedDigits(String line) {
+        var digits = new StringBuilder();
+        for (int i = 0; i < line.length(); i++) {
+            var c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
 
-        return beatRecord(time, record);
+    /**
+     * Charging for c milliseconds goes c * (time - c) millimeters, so that beats the record when
+     * (time - 2c)^2 < time^2 - 4 * record. So the count is the number of k = time - 2c (same parity as time) with
+     * |k| < sqrt(time^2 - 4 * record), no need to try each c.
+     */
+    static long beatRecord(long time, long record) {
+        if (time < 0 || time > MAX_LONG_ROOT || record < 0 || record > Long.MAX_VALUE / 4) {
+            return beatRecord(BigInteger.valueOf(time), BigInteger.valueOf(record)).longValueExact();
+        }
+        var discriminant = time * time - 4 * record;
+        if (discriminant <= 0) {
+            return 0;
+        }
+        var root = sqrt(discriminant);
+        // Biggest |k| that wins, it has to be strictly less than the square root
+        var maxK = root * root == discriminant ? root - 1 : root;
+        return count(maxK, time);
     }
 
-    private static int beatRecord(long time, long record) {
-        var beat = 0;
+    /**
+     * Like {@link #beatRecord(long, long)}, for any size of numbers.
+     */
+    static BigInteger beatRecord(BigInteger time, BigInteger record) {
+        if (time.signum() < 0) {
+            return BigInteger.ZERO;
+        }
+        var discriminant = time.multiply(time).subtract(record.shiftLeft(2));
+        if (discriminant.signum() <= 0) {
+            return BigInteger.ZERO;
+        }
+        var root = discriminant.sqrt();
+        var maxK = root.multiply(root).equals(discriminant) ? root.subtract(BigInteger.ONE) : root;
+        // Can't charge for longer than the race
+        maxK = maxK.min(time);
+        var count = maxK.add(BigInteger.ONE);
+        return maxK.testBit(0) == time.testBit(0) ? count : count.subtract(BigInteger.ONE);
+    }
 
-        for (int chargeTime = 1; chargeTime < time - 1; chargeTime++) {
-            var distance = (time - chargeTime) * chargeTime;
-            if (distance > record) {
-                beat++;
-            }
+    /**
+     * {@link #beatRecord(long, long)} for many races, race i is {@code (times[i], records[i])}.
+     */
+    static long[] beatRecords(long[] times, long[] records) {
+        if (times.length != records.length) {
+            throw new IllegalArgumentException("Got " + times.length + " times but " + records.length + " records");
+        }
+        var result = new long[times.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = beatRecord(times[i], records[i]);
         }
-        return beat;
+        return result;
     }
 
+    // Number of k in [-maxK, maxK] with the same parity as time
+    private static long count(long maxK, long time) {
+        // Can't charge for longer than the race
+        maxK = Math.min(maxK, time);
+        return ((maxK ^ time) & 1) == 0 ? maxK + 1 : maxK;
+    }
+
+    // Largest root with root * root <= n
+    private static long sqrt(long n) {
+        // The double can be off by one in either direction for big numbers, but squares above MAX_LONG_ROOT
+        // would overflow
+        var root = Math.min((long) Math.sqrt((double) n), MAX_LONG_ROOT);
+        while (root * root > n) {
+            root--;
+        }
+        while (root < MAX_LONG_ROOT && (root + 1) * (root + 1) <= n) {
+            root++;
+        }
+        return root;
+    }
 
     @Test
     void example() {
@@ -55,6 +142,43 @@ public class Day06 {
                 """;
         assertEquals(288, solve1(s));
         assertEquals(71503, solve2(s));
+        assertEquals(BigInteger.valueOf(71503), solve2Big(s));
+        assertArrayEquals(new long[]{4, 8, 9}, beatRecords(new long[]{7, 15, 30}, new long[]{9, 40, 200}));
+    }
+
+    @Test
+    void bruteForce() {
+        for (long time = 0; time <= 60; time++) {
+            for (long record = 0; record <= time * time / 4 + 1; record++) {
+                var beat = 0;
+                for (long chargeTime = 0; chargeTime <= time; chargeTime++) {
+                    if (chargeTime * (time - chargeTime) > record) {
+                        beat++;
+                    }
+                }
+                assertEquals(beat, beatRecord(time, record));
+                assertEquals(BigInteger.valueOf(beat), beatRecord(BigInteger.valueOf(time), BigInteger.valueOf(record)));
+            }
+        }
+    }
+
+    @Test
+    void big() {
+        // Charging for exactly 1 or 2 billion milliseconds only ties the record
+        assertEquals(999_999_999L, beatRecord(3_000_000_000L, 2_000_000_000_000_000_000L));
+        // time * time doesn't fit into a long anymore
+        assertEquals(1_999_999_999L, beatRecord(4_000_000_000L, 3_000_000_000_000_000_000L));
+        // The biggest time that still fits, the square root can't go any higher
+        assertEquals(3_037_000_498L, beatRecord(3_037_000_499L, 0));
+        assertEquals(3_037_000_498L, solve2("Time: 3037000499\nDistance: 0\n"));
+        assertEquals(3_037_000_499L, beatRecord(3_037_000_500L, 0));
+
+        var s = """
+                Time:      12345678901 234567890
+                Distance:  1 0
+                """;
+        assertEquals(new BigInteger("12345678901234567889"), solve2Big(s));
+        assertThrows(ArithmeticException.class, () -> solve2(s));
     }
 
     @Test
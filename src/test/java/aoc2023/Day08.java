@@ -100,15 +100,14 @@ public class Day08 {
                 if (states.stream().allMatch(s -> s.loopLength > 0)) {
                     System.out.println("Found all periods");
 
-                    var period = states.getFirst().loopLength;
-                    long i = states.getFirst().loopStart + period;
-                    while (true) {
-                        long offset = i;
-                        if (states.stream().allMatch(s -> (offset - s.loopStart) % s.loopLength == 0)) {
-                            return i;
-                        }
-                        i += period;
+                    // Each state is at its Z at loopStart + n * loopLength, so solve that as a system of congruences.
+                    var congruences = states.stream().map(s -> new Maths.Congruence(s.loopStart, s.loopLength)).toList();
+                    var combined = Maths.crt(congruences);
+                    if (combined == null) {
+                        throw new IllegalStateException("States are never at Z at the same time");
                     }
+                    var first = states.getFirst();
+                    return combined.smallestAtLeast(first.loopStart + first.loopLength);
                 }
             }
 
@@ -8,7 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class Day10 {
 
-    record Puzzle(Pos start, Map<Pos, Pipe> map, int width, int height) {
+    record Puzzle(Pos start, PosMap<Pipe> map, int width, int height) {
     }
 
     enum Direction {
@@ -66,7 +66,7 @@ public class Day10 {
         var start = puzzle.start();
         var map = puzzle.map();
 
-        var visited = new HashSet<Pos>();
+        var visited = new PosSet();
         var current = List.of(start);
 
         var furthest = 0;
@@ -115,9 +115,9 @@ public class Day10 {
         var start = puzzle.start();
         var map = puzzle.map();
 
-        var mainLoop = new HashSet<Pos>();
-        var leftSet = new HashSet<Pos>();
-        var rightSet = new HashSet<Pos>();
+        var mainLoop = new PosSet();
+        var leftSet = new PosSet();
+        var rightSet = new PosSet();
         var pos = start;
 
         while (pos != null) {
@@ -138,8 +138,8 @@ public class Day10 {
                 if (pipe.canGo(dir, neighborPipe)) {
                     var leftOutsides = getOutsides(neighborPos, neighborPipe, dir.opposite(), 1);
                     var rightOutsides = getOutsides(neighborPos, neighborPipe, dir.opposite(), -1);
-                    leftSet.addAll(leftOutsides);
-                    rightSet.addAll(rightOutsides);
+                    leftOutsides.forEach(leftSet::add);
+                    rightOutsides.forEach(rightSet::add);
 
                     nextPos = neighborPos;
                     // Just go around one direction, not both. This makes it easier to keep track of left/right.
@@ -168,14 +168,17 @@ public class Day10 {
         return outsides;
     }
 
-    static int fillSpace(Set<Pos> start, Set<Pos> mainLoop, int width, int height) {
-        var current = new HashSet<>(start);
-        var all = new HashSet<>(start);
+    static int fillSpace(PosSet start, PosSet mainLoop, int width, int height) {
+        var current = new PosSet(start.size());
+        current.addAll(start);
+        var next = new PosSet(start.size());
+        var all = new PosSet(start.size());
+        all.addAll(start);
 
         while (!current.isEmpty()) {
-            var next = new HashSet<Pos>();
-
-            for (Pos pos : current) {
+            for (var it = current.iterator(); it.hasNext(); ) {
+                var key = it.nextLong();
+                var pos = new Pos(PosSet.x(key), PosSet.y(key));
                 for (Pos neighborPos : pos.neighbors()) {
                     if (neighborPos.x() == 0 || neighborPos.y() == 0 || neighborPos.x() == width - 1 || neighborPos.y() == height - 1) {
                         // Fell off the map, this set can not be within the main loop.
@@ -191,13 +194,17 @@ public class Day10 {
                 }
             }
 
+            // Swap the layers and reuse the old one for the next round
+            var done = current;
             current = next;
+            next = done;
+            next.clear();
         }
         return all.size();
     }
 
     static Puzzle parse(String input) {
-        var map = new HashMap<Pos, Pipe>();
+        var map = new PosMap<Pipe>();
         Pos start = null;
         int width = 0;
         var lines = input.split("\n");
@@ -214,7 +221,7 @@ public class Day10 {
                 }
                 var pipe = parsePipe(cell);
                 if (pipe != null) {
-                    map.put(new Pos(x, y), pipe);
+                    map.put(x, y, pipe);
                 }
             }
         }
@@ -1,5 +1,9 @@
 package aoc2023;
 
+import jdk.jfr.Category;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
@@ -71,12 +75,42 @@ public class Day12 {
     record State(int index, int currentRun, int runLength) {
     }
 
+    @Name("aoc2023.Day12.Combinations")
+    @Label("Combinations")
+    @Category({"Advent of Code", "Day 12"})
+    static class CombinationsEvent extends jdk.jfr.Event {
+        @Label("Springs")
+        int springs;
+        @Label("Memo Hits")
+        long memoHits;
+        @Label("Memo Misses")
+        long memoMisses;
+        @Label("Combinations")
+        long combinations;
+    }
+
+    private static final EventType COMBINATIONS_EVENT = EventType.getEventType(CombinationsEvent.class);
+
     static long combinations(List<Type> pattern, List<Integer> damagedRuns) {
         var mem = new HashMap<State, Long>();
-        return combinations(pattern, damagedRuns, 0, 0, 0, mem);
+        // Called for every line, so don't even create the event when it's not recorded
+        if (!COMBINATIONS_EVENT.isEnabled()) {
+            return combinations(pattern, damagedRuns, 0, 0, 0, mem, null);
+        }
+        var event = new CombinationsEvent();
+        event.begin();
+        var result = combinations(pattern, damagedRuns, 0, 0, 0, mem, event);
+        if (event.shouldCommit()) {
+            event.springs = pattern.size();
+            // Every miss ends up in the memo
+            event.memoMisses = mem.size();
+            event.combinations = result;
+            event.commit();
+        }
+        return result;
     }
 
-    static long combinations(List<Type> pattern, List<Integer> damagedRuns, int index, int currentRun, int runLength, Map<State, Long> mem) {
+    static long combinations(List<Type> pattern, List<Integer> damagedRuns, int index, int currentRun, int runLength, Map<State, Long> mem, CombinationsEvent event) {
         if (index == pattern.size()) {
             // Check result, if possible return 1
             if ((currentRun == damagedRuns.size() && runLength == 0) || (currentRun == damagedRuns.size() - 1 && damagedRuns.getLast() == runLength)) {
@@ -88,6 +122,9 @@ public class Day12 {
         var state = new State(index, currentRun, runLength);
         var previousResult = mem.get(state);
         if (previousResult != null) {
+            if (event != null) {
+                event.memoHits++;
+            }
             return previousResult;
         }
 
@@ -103,15 +140,15 @@ public class Day12 {
                 if (currentRun >= damagedRuns.size() || runLength + 1 > damagedRuns.get(currentRun)) {
                     continue;
                 }
-                result += combinations(pattern, damagedRuns, index + 1, currentRun, runLength + 1, mem);
+                result += combinations(pattern, damagedRuns, index + 1, currentRun, runLength + 1, mem, event);
             } else {
                 if (runLength != 0) {
                     if (currentRun >= damagedRuns.size() || damagedRuns.get(currentRun) != runLength) {
                         continue;
                     }
-                    result += combinations(pattern, damagedRuns, index + 1, currentRun + 1, 0, mem);
+                    result += combinations(pattern, damagedRuns, index + 1, currentRun + 1, 0, mem, event);
                 } else {
-                    result += combinations(pattern, damagedRuns, index + 1, currentRun, runLength, mem);
+                    result += combinations(pattern, damagedRuns, index + 1, currentRun, runLength, mem, event);
                 }
             }
         }
@@ -1,10 +1,12 @@
 package aoc2023;
 
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 import org.junit.jupiter.api.Test;
 
 import java.util.BitSet;
 import java.util.HashMap;
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -21,36 +23,49 @@ public class Day14 {
         }
     }
 
-    enum Rock {
-        ROUND,
-        CUBE
-    }
+    static final char ROUND = 'O';
+    static final char EMPTY = '.';
 
     static long solve1(String input) {
-        var map = parse(input);
-        var bounds = PosBounds.calculate(map.keySet());
+        var grid = CharGrid.parse(input);
+
+        tilt(grid, Direction.NORTH);
+        return calculateLoad(grid);
+    }
 
-        tilt(map, bounds, Direction.NORTH);
-        return calculateLoad(map, bounds);
+    @Name("aoc2023.Day14.Repetition")
+    @Label("Repetition")
+    @Category({"Advent of Code", "Day 14"})
+    static class RepetitionEvent extends jdk.jfr.Event {
+        @Label("Cycles Before Repetition")
+        int cycles;
+        @Label("Loop Length")
+        int loopLength;
     }
 
     static long solve2(String input) {
-        var map = parse(input);
-        var bounds = PosBounds.calculate(map.keySet());
+        var grid = CharGrid.parse(input);
+        var event = new RepetitionEvent();
+        event.begin();
 
         var states = new HashMap<BitSet, Integer>();
-        states.put(captureState(map, bounds), 0);
+        states.put(captureState(grid), 0);
         var maxCycles = 1000000000;
         var jumped = false;
         for (int cycle = 0; cycle < maxCycles; cycle++) {
             System.out.println("Cycle " + cycle);
-            runCycle(map, bounds);
+            runCycle(grid);
             if (!jumped) {
-                var state = captureState(map, bounds);
+                var state = captureState(grid);
                 var previousCycle = states.get(state);
                 if (previousCycle != null) {
                     System.out.println("Found repetition at cycle " + cycle + " with previous cycle " + previousCycle + ", fast forwarding");
                     int loop = cycle - previousCycle;
+                    if (event.shouldCommit()) {
+                        event.cycles = cycle + 1;
+                        event.loopLength = loop;
+                        event.commit();
+                    }
                     int left = (maxCycles - cycle) % loop;
                     cycle = maxCycles - left;
                     jumped = true;
@@ -60,55 +75,42 @@ public class Day14 {
             }
         }
 
-        return calculateLoad(map, bounds);
+        return calculateLoad(grid);
     }
 
-    static void print(Map<Pos, Rock> map, PosBounds bounds) {
-        for (int y = 0; y < bounds.height(); y++) {
-            for (int x = 0; x < bounds.width(); x++) {
-                var pos = new Pos(x, y);
-                var rock = map.get(pos);
-                if (rock == Rock.ROUND) {
-                    System.out.print("O");
-                } else if (rock == Rock.CUBE) {
-                    System.out.print("#");
-                } else {
-                    System.out.print(".");
-                }
-            }
-            System.out.println();
-        }
-        System.out.println();
+    static void print(CharGrid grid) {
+        System.out.println(grid);
     }
 
-    static BitSet captureState(Map<Pos, Rock> map, PosBounds bounds) {
+    static BitSet captureState(CharGrid grid) {
         var state = new BitSet();
-        for (Map.Entry<Pos, Rock> entry : map.entrySet()) {
-            if (entry.getValue() == Rock.ROUND) {
-                var pos = entry.getKey();
-                state.set(pos.y() * bounds.width() + pos.x());
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                if (grid.get(x, y) == ROUND) {
+                    state.set(y * grid.width() + x);
+                }
             }
         }
         return state;
     }
 
-    static void runCycle(Map<Pos, Rock> map, PosBounds bounds) {
-        tilt(map, bounds, Direction.NORTH);
-//        print(map, bounds);
-        tilt(map, bounds, Direction.WEST);
-//        print(map, bounds);
-        tilt(map, bounds, Direction.SOUTH);
-//        print(map, bounds);
-        tilt(map, bounds, Direction.EAST);
-//        print(map, bounds);
+    static void runCycle(CharGrid grid) {
+        tilt(grid, Direction.NORTH);
+//        print(grid);
+        tilt(grid, Direction.WEST);
+//        print(grid);
+        tilt(grid, Direction.SOUTH);
+//        print(grid);
+        tilt(grid, Direction.EAST);
+//        print(grid);
     }
 
-    static void tilt(Map<Pos, Rock> map, PosBounds bounds, Direction dir) {
-        var outerLimit = bounds.height();
-        var innerLimit = bounds.width();
+    static void tilt(CharGrid grid, Direction dir) {
+        var outerLimit = grid.height();
+        var innerLimit = grid.width();
         if (!dir.isVertical()) {
-            outerLimit = bounds.width();
-            innerLimit = bounds.height();
+            outerLimit = grid.width();
+            innerLimit = grid.height();
         }
         var dirX = 0;
         var dirY = 0;
@@ -120,50 +122,39 @@ public class Day14 {
         }
         for (int outer = 0; outer < outerLimit; outer++) {
             for (int inner = 0; inner < innerLimit; inner++) {
-                var pos = dir.isVertical() ?
-                        new Pos(inner, dir == Direction.NORTH ? outer : outerLimit - outer - 1) :
-                        new Pos(dir == Direction.WEST ? outer : outerLimit - outer - 1, inner);
-                var rock = map.get(pos);
-                if (rock == Rock.ROUND) {
-                    var newPos = pos;
+                var x = dir.isVertical() ? inner : (dir == Direction.WEST ? outer : outerLimit - outer - 1);
+                var y = dir.isVertical() ? (dir == Direction.NORTH ? outer : outerLimit - outer - 1) : inner;
+                if (grid.get(x, y) == ROUND) {
+                    var moved = 0;
                     for (int i = 1; i <= outer; i++) {
-                        var candidate = new Pos(pos.x() + i * dirX, pos.y() + i * dirY);
-                        if (map.containsKey(candidate)) {
+                        if (grid.get(x + i * dirX, y + i * dirY) != EMPTY) {
                             break;
                         }
-                        newPos = candidate;
+                        moved = i;
                     }
 
-                    if (newPos != pos) {
+                    if (moved != 0) {
                         // Rock has moved, reposition it
-                        map.remove(pos);
-                        map.put(newPos, rock);
+                        grid.set(x, y, EMPTY);
+                        grid.set(x + moved * dirX, y + moved * dirY, ROUND);
                     }
                 }
             }
         }
     }
 
-    static int calculateLoad(Map<Pos, Rock> map, PosBounds bounds) {
+    static int calculateLoad(CharGrid grid) {
         var load = 0;
-        for (Map.Entry<Pos, Rock> entry : map.entrySet()) {
-            if (entry.getValue() == Rock.ROUND) {
-                var pos = entry.getKey();
-                load += bounds.height() - pos.y();
+        for (int y = 0; y < grid.height(); y++) {
+            for (int x = 0; x < grid.width(); x++) {
+                if (grid.get(x, y) == ROUND) {
+                    load += grid.height() - y;
+                }
             }
         }
         return load;
     }
 
-    static Map<Pos, Rock> parse(String input) {
-        return Grids.parse(input, s -> switch (s) {
-            case "O" -> Rock.ROUND;
-            case "#" -> Rock.CUBE;
-            case "." -> null;
-            default -> throw new IllegalStateException("Unexpected value: " + s);
-        });
-    }
-
     @Test
     void example() {
         var s = """
@@ -5,7 +5,6 @@ import org.junit.jupiter.api.Test;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -67,37 +66,35 @@ public class Day16 {
     }
 
     static long solve1(String input) {
-        var map = parse(input);
-        var bounds = PosBounds.calculate(map.keySet());
+        var grid = CharGrid.parse(input);
 
         var start = new Beam(new Pos(-1, 0), Direction.RIGHT);
-        return solve(start, map, bounds);
+        return solve(start, grid);
     }
 
     static long solve2(String input) {
-        var map = parse(input);
-        var bounds = PosBounds.calculate(map.keySet());
+        var grid = CharGrid.parse(input);
 
-        var vertical = IntStream.range(0, bounds.width()).boxed().flatMap(x -> Stream.of(new Beam(new Pos(x, -1), Direction.DOWN), new Beam(new Pos(x, bounds.maxY() + 1), Direction.UP)));
-        var horizontal = IntStream.range(0, bounds.height()).boxed().flatMap(y -> Stream.of(new Beam(new Pos(-1, y), Direction.RIGHT), new Beam(new Pos(bounds.maxX() + 1, y), Direction.LEFT)));
-        return Stream.concat(vertical, horizontal).mapToLong(b -> solve(b, map, bounds)).max().getAsLong();
+        var vertical = IntStream.range(0, grid.width()).boxed().flatMap(x -> Stream.of(new Beam(new Pos(x, -1), Direction.DOWN), new Beam(new Pos(x, grid.height()), Direction.UP)));
+        var horizontal = IntStream.range(0, grid.height()).boxed().flatMap(y -> Stream.of(new Beam(new Pos(-1, y), Direction.RIGHT), new Beam(new Pos(grid.width(), y), Direction.LEFT)));
+        return Stream.concat(vertical, horizontal).mapToLong(b -> solve(b, grid)).max().getAsLong();
     }
 
-    static int solve(Beam start, Map<Pos, Tile> map, PosBounds bounds) {
+    static int solve(Beam start, CharGrid grid) {
         var beams = new ArrayList<Beam>();
         beams.add(start);
-        var energized = new HashSet<Pos>();
+        var energized = new PosSet();
         // Keep track of all bean states that we've tried. Without this, we could be looping indefinitely.
         var allBeams = new HashSet<Beam>();
         while (!beams.isEmpty()) {
             var newBeams = new ArrayList<Beam>();
             for (Beam beam : beams) {
                 var newPos = beam.pos().plus(beam.direction().pos());
-                if (!bounds.contains(newPos)) {
+                if (!grid.contains(newPos)) {
                     continue;
                 }
                 energized.add(newPos);
-                var newTile = map.get(newPos);
+                var newTile = tile(grid.get(newPos));
                 if (newTile == null) {
                     var newBeam = new Beam(newPos, beam.direction());
                     if (allBeams.add(newBeam)) {
@@ -119,15 +116,15 @@ public class Day16 {
         return energized.size();
     }
 
-    private static Map<Pos, Tile> parse(String input) {
-        return Grids.parse(input, s -> switch (s) {
-            case "/" -> Tile.SLASH;
-            case "\\" -> Tile.BACKSLASH;
-            case "|" -> Tile.SPLIT_VERTICAL;
-            case "-" -> Tile.SPLIT_HORIZONTAL;
-            case "." -> null;
-            default -> throw new IllegalStateException("Unexpected value: " + s);
-        });
+    private static Tile tile(char c) {
+        return switch (c) {
+            case '/' -> Tile.SLASH;
+            case '\\' -> Tile.BACKSLASH;
+            case '|' -> Tile.SPLIT_VERTICAL;
+            case '-' -> Tile.SPLIT_HORIZONTAL;
+            case '.' -> null;
+            default -> throw new IllegalStateException("Unexpected value: " + c);
+        };
     }
 
     @Test
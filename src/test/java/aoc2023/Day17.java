@@ -1,5 +1,8 @@
 package aoc2023;
 
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
@@ -40,6 +43,20 @@ public class Day17 {
     record State(Pos pos, Direction direction, int directionSteps) {
     }
 
+    @Name("aoc2023.Day17.Search")
+    @Label("Search")
+    @Category({"Advent of Code", "Day 17"})
+    static class SearchEvent extends jdk.jfr.Event {
+        @Label("Max Straight")
+        int maxStraight;
+        @Label("Queue Pushes")
+        long pushes;
+        @Label("Queue Pops")
+        long pops;
+        @Label("Max Queue Size")
+        int maxQueueSize;
+    }
+
     static int solve1(String input) {
         return solve(input, 1, 3);
     }
@@ -50,9 +67,22 @@ public class Day17 {
 
     // A* algorithm
     static int solve(String input, int minStraight, int maxStraight) {
-        var map = Grids.parse(input, Integer::valueOf);
-        var bounds = PosBounds.calculate(map.keySet());
-        var endPos = new Pos(bounds.maxX(), bounds.maxY());
+        var event = new SearchEvent();
+        event.begin();
+        try {
+            // Only count when recording, the counters are updated for every state
+            return search(input, minStraight, maxStraight, event.isEnabled() ? event : null);
+        } finally {
+            if (event.shouldCommit()) {
+                event.maxStraight = maxStraight;
+                event.commit();
+            }
+        }
+    }
+
+    private static int search(String input, int minStraight, int maxStraight, SearchEvent event) {
+        var grid = IntGrid.parse(input, c -> c - '0');
+        var endPos = new Pos(grid.width() - 1, grid.height() - 1);
 
         var startPos = new Pos(0, 0);
         var startState = new State(startPos, Direction.RIGHT, 0);
@@ -69,9 +99,16 @@ public class Day17 {
         var queue = new PriorityQueue<State>(Comparator.comparing(fScore::get));
         queue.add(startState);
         queue.add(startState2);
+        if (event != null) {
+            event.pushes += 2;
+            event.maxQueueSize = queue.size();
+        }
 
         while (!queue.isEmpty()) {
             var state = queue.remove();
+            if (event != null) {
+                event.pops++;
+            }
 
             if (state.pos().equals(endPos)) {
                 return gScore.get(state);
@@ -87,10 +124,10 @@ public class Day17 {
 
             for (Direction direction : directions) {
                 var newPos = state.pos().plus(direction.pos());
-                var heat = map.get(newPos);
-                if (heat == null) {
+                if (!grid.contains(newPos)) {
                     continue;
                 }
+                var heat = grid.get(newPos);
 
                 var directionSteps = direction == state.direction() ? state.directionSteps() + 1 : 1;
                 var newState = new State(newPos, direction, directionSteps);
@@ -100,6 +137,11 @@ public class Day17 {
                     fScore.put(newState, score + newPos.distance(endPos));
                     if (!queue.contains(newState)) {
                         queue.add(newState);
+                        if (event != null) {
+                            event.pushes++;
+                            // The queue only grows here
+                            event.maxQueueSize = Math.max(event.maxQueueSize, queue.size());
+                        }
                     }
                 }
             }
@@ -65,8 +65,8 @@ public class Day18 {
     }
 
     static int fillEmptyFromOutside(Set<Pos> map, PosBounds bounds) {
-        var empty = new HashSet<Pos>();
-        var visited = new HashSet<Pos>();
+        var empty = new PosSet();
+        var visited = new PosSet();
         var check = new LinkedList<>(bounds.borderInside());
 
         while (!check.isEmpty()) {
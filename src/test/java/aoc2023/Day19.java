@@ -223,12 +223,12 @@ public class Day19 {
 
     static List<Part> parseParts(String input) {
         var parts = new ArrayList<Part>();
+        var nums = new int[4];
         for (var line : input.split("\n")) {
-            var nums = Parsing.numbers(line);
-            if (nums.size() != 4) {
+            if (Parsing.numbers(line, nums) != 4) {
                 throw new IllegalArgumentException("Can't parse part " + line);
             }
-            parts.add(new Part(nums.get(0), nums.get(1), nums.get(2), nums.get(3)));
+            parts.add(new Part(nums[0], nums[1], nums[2], nums[3]));
         }
         return parts;
     }
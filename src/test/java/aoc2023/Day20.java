@@ -1,5 +1,8 @@
 package aoc2023;
 
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -40,12 +43,23 @@ public class Day20 {
     record PulseSend(String source, String destination, Pulse pulse) {
     }
 
+    @Name("aoc2023.Day20.Press")
+    @Label("Button Press")
+    @Category({"Advent of Code", "Day 20"})
+    static class PressEvent extends jdk.jfr.Event {
+        @Label("Press")
+        long press;
+        @Label("Pulses")
+        long pulses;
+    }
+
     static class Machines {
         // Schema
         private final Map<String, Module> modules;
         // State
         private final Map<String, Conjunction> conjunctions;
         private final Map<String, FlipFlop> flipFlops;
+        private long pulsesProcessed = 0;
 
         static Machines parse(String input) {
             var modules = new HashMap<String, Module>();
@@ -96,6 +110,7 @@ public class Day20 {
         }
 
         List<PulseSend> process(List<PulseSend> pulses) {
+            pulsesProcessed += pulses.size();
             var newPulses = new ArrayList<PulseSend>();
             for (var pulseSend : pulses) {
                 String key = pulseSend.destination();
@@ -129,6 +144,22 @@ public class Day20 {
             }
             return newPulses;
         }
+
+        PressEvent startPress(long press) {
+            var event = new PressEvent();
+            event.begin();
+            event.press = press;
+            // Store where the counter was, so that endPress can count the pulses of this press
+            event.pulses = pulsesProcessed;
+            return event;
+        }
+
+        void endPress(PressEvent event) {
+            if (event.shouldCommit()) {
+                event.pulses = pulsesProcessed - event.pulses;
+                event.commit();
+            }
+        }
     }
 
     static long solve1(String input) {
@@ -137,6 +168,7 @@ public class Day20 {
         var low = 0;
         var high = 0;
         for (int i = 0; i < 1000; i++) {
+            var event = machines.startPress(i + 1);
             var pulses = List.of(new PulseSend("button", "broadcaster", Pulse.LOW));
             low++;
 
@@ -149,6 +181,7 @@ public class Day20 {
                     }
                 }
             }
+            machines.endPress(event);
         }
 
         return (long) low * high;
@@ -177,6 +210,7 @@ public class Day20 {
         var presses = 0L;
         while (true) {
             presses++;
+            var event = machines.startPress(presses);
             var pulses = List.of(new PulseSend("button", "broadcaster", Pulse.LOW));
             while (!pulses.isEmpty()) {
                 pulses = machines.process(pulses);
@@ -184,11 +218,13 @@ public class Day20 {
                     if (pulse.pulse() == Pulse.LOW && requiredModules.contains(pulse.destination())) {
                         requiredModulePresses.putIfAbsent(pulse.destination(), presses);
                         if (requiredModulePresses.size() == requiredModules.size()) {
+                            machines.endPress(event);
                             return Maths.lcm(requiredModulePresses.values());
                         }
                     }
                 }
             }
+            machines.endPress(event);
         }
     }
 
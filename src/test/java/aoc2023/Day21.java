@@ -8,18 +8,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class Day21 {
 
-    enum Plot {
-        START,
-        GARDEN,
-        ROCK;
-
-        boolean canGo() {
-            return switch (this) {
-                case START, GARDEN -> true;
-                case ROCK -> false;
-            };
-        }
-    }
+    static final char START = 'S';
+    static final char ROCK = '#';
 
     record State(Pos pos, int steps) {
     }
@@ -29,39 +19,48 @@ public class Day21 {
         return calculate1(map, 64);
     }
 
-    static long calculate1(Map<Pos, Plot> map, int steps) {
-        var start = map.entrySet().stream().filter(e -> e.getValue() == Plot.START).findFirst().get().getKey();
+    static long calculate1(CharGrid map, int steps) {
+        var start = map.find(START);
         return calculate1(map, start, steps);
     }
 
-    static long calculate1(Map<Pos, Plot> map, Pos start, int steps) {
-        var positions = new HashSet<Pos>();
+    static long calculate1(CharGrid map, Pos start, int steps) {
+        var positions = new PosSet();
         positions.add(start);
+        var newPositions = new PosSet();
 
         for (int i = 0; i < steps; i++) {
-            var newPositions = new HashSet<Pos>();
-            for (Pos position : positions) {
-                for (Pos neighbor : position.neighbors()) {
-                    var plot = map.get(neighbor);
-                    if (plot != null && plot.canGo()) {
-                        newPositions.add(neighbor);
-                    }
-                }
-            }
-            positions = newPositions;
+            var current = positions;
+            var next = newPositions;
+            current.forEach((x, y) -> {
+                addIfGarden(map, next, x, y + 1);
+                addIfGarden(map, next, x + 1, y);
+                addIfGarden(map, next, x, y - 1);
+                addIfGarden(map, next, x - 1, y);
+            });
+            // Reuse the previous layer for the next step
+            newPositions = current;
+            newPositions.clear();
+            positions = next;
         }
 
         return positions.size();
     }
 
+    private static void addIfGarden(CharGrid map, PosSet positions, int x, int y) {
+        if (map.getOrDefault(x, y, ROCK) != ROCK) {
+            positions.add(x, y);
+        }
+    }
+
     static long solve2(String input) {
         var map = parse(input);
         return calculate2(map, 26501365);
     }
 
-    private static long calculate2(Map<Pos, Plot> map, int steps) {
-        var bounds = PosBounds.calculate(map.keySet());
-        var origin = map.entrySet().stream().filter(e -> e.getValue() == Plot.START).findFirst().get().getKey();
+    private static long calculate2(CharGrid map, int steps) {
+        var bounds = map.bounds();
+        var origin = map.find(START);
 
         var evenOdd = calculateCompletedTileEvenOdd(map, origin);
         System.out.println("Even, odd: " + Arrays.toString(evenOdd));
@@ -99,29 +98,33 @@ public class Day21 {
             if (x % 1000 == 0) {
                 System.out.println("x: " + x);
             }
-            for (int y = -tilesUp; y <= tilesDown; y++) {
-                var tileDistance = Math.abs(x) + Math.abs(y);
-                if (tileDistance < tilesUp - 2) {
-                    if (tileDistance % 2 == 0) {
-                        result += evenOdd[1];
-                    } else {
-                        result += evenOdd[0];
+            var ax = Math.abs(x);
+            // Tiles closer than tilesUp - 2 are completely reached, count them by the parity of their distance
+            // instead of going through each one. Only the few tiles around the edge of the diamond need a look.
+            var full = tilesUp - 2 - ax - 1;
+            if (full >= 0) {
+                var evenTiles = countEvenDistance(ax, Math.max(-tilesUp, -full), Math.min(tilesDown, full));
+                var allTiles = Math.min(tilesDown, full) - Math.max(-tilesUp, -full) + 1;
+                result += evenTiles * evenOdd[1] + (allTiles - evenTiles) * evenOdd[0];
+            }
+            var edgeFrom = Math.max(0, tilesUp - 2 - ax);
+            var edgeTo = tilesUp + 2 - ax;
+            for (int ay = edgeFrom; ay <= edgeTo; ay++) {
+                for (int y : ay == 0 ? new int[]{0} : new int[]{-ay, ay}) {
+                    if (y < -tilesUp || y > tilesDown) {
+                        continue;
                     }
-                    continue;
-                }
-                if (tileDistance > tilesUp + 2) {
-                    continue;
-                }
-                var tile = new Pos(x, y);
-                var state = getReachable(tile, origin, bounds, steps);
-                if (state != null) {
-                    var cachedResult = cache.get(state);
-                    if (cachedResult != null) {
-                        result += cachedResult;
-                    } else {
-                        var r = calculate1(map, state.pos(), state.steps());
-                        cache.put(state, r);
-                        result += r;
+                    var tile = new Pos(x, y);
+                    var state = getReachable(tile, origin, bounds, steps);
+                    if (state != null) {
+                        var cachedResult = cache.get(state);
+                        if (cachedResult != null) {
+                            result += cachedResult;
+                        } else {
+                            var r = calculate1(map, state.pos(), state.steps());
+                            cache.put(state, r);
+                            result += r;
+                        }
                     }
                 }
             }
@@ -130,6 +133,21 @@ public class Day21 {
         return result;
     }
 
+    // Number of y in [from, to] with ax + |y| even
+    private static long countEvenDistance(int ax, int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        // |y| has the same parity as y
+        return countWithParity(from, to, ax % 2);
+    }
+
+    // Number of y in [from, to] with y % 2 == parity (as floorMod)
+    private static long countWithParity(long from, long to, int parity) {
+        var first = Math.floorMod(from, 2) == parity ? from : from + 1;
+        return first > to ? 0 : (to - first) / 2 + 1;
+    }
+
     static State getReachable(Pos tile, Pos origin, PosBounds bounds, int steps) {
         var localPos = calculateStartingPosWithin(tile, origin, bounds);
         var globalPos = new Pos(tile.x() * bounds.width() + localPos.x(), tile.y() * bounds.height() + localPos.y());
@@ -163,7 +181,7 @@ public class Day21 {
         return new Pos(localX, localY);
     }
 
-    static long[] calculateCompletedTileEvenOdd(Map<Pos, Plot> map, Pos start) {
+    static long[] calculateCompletedTileEvenOdd(CharGrid map, Pos start) {
         var positions = new HashSet<Pos>();
         positions.add(start);
 
@@ -175,8 +193,7 @@ public class Day21 {
             var newPositions = new HashSet<Pos>();
             for (Pos position : positions) {
                 for (Pos neighbor : position.neighbors()) {
-                    var plot = map.get(neighbor);
-                    if (plot != null && plot.canGo()) {
+                    if (map.getOrDefault(neighbor, ROCK) != ROCK) {
                         newPositions.add(neighbor);
                     }
                 }
@@ -194,9 +211,9 @@ public class Day21 {
         }
     }
 
-    static long calculate2Polynomial(Map<Pos, Plot> map, int steps) {
-        var bounds = PosBounds.calculate(map.keySet());
-        var origin = map.entrySet().stream().filter(e -> e.getValue() == Plot.START).findFirst().get().getKey();
+    static long calculate2Polynomial(CharGrid map, int steps) {
+        var bounds = map.bounds();
+        var origin = map.find(START);
 
         int width = bounds.width();
         System.out.println(origin.x());
@@ -225,34 +242,35 @@ public class Day21 {
         return sequence.getLast();
     }
 
-    static int calculateInfinite(Map<Pos, Plot> map, PosBounds bounds, Pos start, int steps) {
-        var positions = new HashSet<Pos>();
+    static int calculateInfinite(CharGrid map, PosBounds bounds, Pos start, int steps) {
+        var positions = new PosSet();
         positions.add(start);
+        var newPositions = new PosSet();
         for (int i = 0; i < steps; i++) {
-            var newPositions = new HashSet<Pos>();
-            for (Pos position : positions) {
-                for (Pos neighbor : position.neighbors()) {
-                    var x = Math.floorMod(neighbor.x(), bounds.width());
-                    var y = Math.floorMod(neighbor.y(), bounds.height());
-                    var plot = map.get(new Pos(x, y));
-
-                    if (plot.canGo()) {
-                        newPositions.add(neighbor);
-                    }
-                }
-            }
-            positions = newPositions;
+            var current = positions;
+            var next = newPositions;
+            current.forEach((x, y) -> {
+                addIfGardenInfinite(map, bounds, next, x, y + 1);
+                addIfGardenInfinite(map, bounds, next, x + 1, y);
+                addIfGardenInfinite(map, bounds, next, x, y - 1);
+                addIfGardenInfinite(map, bounds, next, x - 1, y);
+            });
+            newPositions = current;
+            newPositions.clear();
+            positions = next;
         }
         return positions.size();
     }
 
-    static Map<Pos, Plot> parse(String input) {
-        return Grids.parse(input, s -> switch (s) {
-            case "S" -> Plot.START;
-            case "." -> Plot.GARDEN;
-            case "#" -> Plot.ROCK;
-            default -> throw new IllegalStateException("Unexpected value: " + s);
-        });
+    private static void addIfGardenInfinite(CharGrid map, PosBounds bounds, PosSet positions, int x, int y) {
+        // The map repeats infinitely in every direction, so coordinates can be negative here
+        if (map.get(Math.floorMod(x, bounds.width()), Math.floorMod(y, bounds.height())) != ROCK) {
+            positions.add(x, y);
+        }
+    }
+
+    static CharGrid parse(String input) {
+        return CharGrid.parse(input);
     }
 
     @Test
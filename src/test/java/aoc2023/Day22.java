@@ -113,12 +113,14 @@ public class Day22 {
     static List<Brick> parse(String input) {
         List<Brick> bricks = new ArrayList<>();
         var lines = input.split("\n");
+        // x,y,z~x,y,z
+        var numbers = new int[6];
         for (var line : lines) {
-            var parts = line.split("~");
-            var fromNumbers = Parsing.numbers(parts[0]);
-            var toNumbers = Parsing.numbers(parts[1]);
-            var from = new Pos3(fromNumbers.get(0), fromNumbers.get(1), fromNumbers.get(2));
-            var to = new Pos3(toNumbers.get(0), toNumbers.get(1), toNumbers.get(2));
+            if (Parsing.numbers(line, numbers) != 6) {
+                throw new IllegalArgumentException("Can't parse brick " + line);
+            }
+            var from = new Pos3(numbers[0], numbers[1], numbers[2]);
+            var to = new Pos3(numbers[3], numbers[4], numbers[5]);
             var cubes = from.straightLineToIncluding(to);
             var brick = new Brick(new HashSet<>(cubes), cubes.stream().mapToInt(Pos3::z).min().getAsInt());
             bricks.add(brick);
@@ -1,5 +1,8 @@
 package aoc2023;
 
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
 import org.junit.jupiter.api.Test;
 
 import java.util.*;
@@ -15,6 +18,18 @@ public class Day23 {
         LEFT
     }
 
+    @Name("aoc2023.Day23.LongestPath")
+    @Label("Longest Path")
+    @Category({"Advent of Code", "Day 23"})
+    static class LongestPathEvent extends jdk.jfr.Event {
+        @Label("Junctions")
+        int junctions;
+        @Label("Nodes Visited")
+        long nodesVisited;
+        @Label("Longest")
+        long longest;
+    }
+
     sealed interface Tile {
     }
 
@@ -24,6 +39,12 @@ public class Day23 {
     record Slope(Direction direction) implements Tile {
     }
 
+    static final Tile PATH = new Path();
+    static final Tile SLOPE_UP = new Slope(Direction.UP);
+    static final Tile SLOPE_RIGHT = new Slope(Direction.RIGHT);
+    static final Tile SLOPE_DOWN = new Slope(Direction.DOWN);
+    static final Tile SLOPE_LEFT = new Slope(Direction.LEFT);
+
     record State(Pos pos, int distance, Set<Pos> visited) {
     }
 
@@ -38,10 +59,9 @@ public class Day23 {
         return findLongest1(map);
     }
 
-    static long findLongest1(Map<Pos, Tile> map) {
-        var bounds = PosBounds.calculate(map.keySet());
-        var start = map.keySet().stream().filter(p -> p.y() == bounds.minY()).findFirst().get();
-        var end = map.keySet().stream().filter(p -> p.y() == bounds.maxY()).findFirst().get();
+    static long findLongest1(CharGrid map) {
+        var start = new Pos(map.row(0).toString().indexOf('.'), 0);
+        var end = new Pos(map.row(map.height() - 1).toString().indexOf('.'), map.height() - 1);
 
         var queue = new LinkedList<State>();
         queue.add(new State(start, 0, Set.of()));
@@ -63,7 +83,7 @@ public class Day23 {
                     break;
                 }
 
-                var tile = map.get(neighbor);
+                var tile = tile(map, neighbor);
                 if (tile == null) {
                     continue;
                 }
@@ -102,12 +122,11 @@ public class Day23 {
         return findLongest2(map);
     }
 
-    static long findLongest2(Map<Pos, Tile> map) {
+    static long findLongest2(CharGrid map) {
         var graph = new LinkedHashMap<Pos, List<Edge>>();
 
-        var bounds = PosBounds.calculate(map.keySet());
-        var start = map.keySet().stream().filter(p -> p.y() == bounds.minY()).findFirst().get();
-        var end = map.keySet().stream().filter(p -> p.y() == bounds.maxY()).findFirst().get();
+        var start = new Pos(map.row(0).toString().indexOf('.'), 0);
+        var end = new Pos(map.row(map.height() - 1).toString().indexOf('.'), map.height() - 1);
 
         var visited = new HashSet<Pos>();
 
@@ -115,7 +134,7 @@ public class Day23 {
         queue.add(new FindEdgeState(start, start, 0));
         while (!queue.isEmpty()) {
             var state = queue.removeLast();
-            var isJunction = state.pos().neighbors().stream().filter(map::containsKey).count() > 2;
+            var isJunction = state.pos().neighbors().stream().filter(p -> tile(map, p) != null).count() > 2;
             if ((isJunction || state.pos().equals(end)) && !state.pos().equals(state.start())) {
                 graph.computeIfAbsent(state.start(), k -> new ArrayList<>()).add(new Edge(state.pos(), state.distance()));
                 graph.computeIfAbsent(state.pos(), k -> new ArrayList<>()).add(new Edge(state.start(), state.distance()));
@@ -126,7 +145,7 @@ public class Day23 {
             }
 
             for (Pos neighbor : state.pos().neighbors()) {
-                if (!map.containsKey(neighbor)) {
+                if (tile(map, neighbor) == null) {
                     continue;
                 }
 
@@ -136,10 +155,22 @@ public class Day23 {
 
         System.out.println("Graph: " + graph);
 
-        return findLongestInGraph(start, 0, graph, Set.of(start), end);
+        var event = new LongestPathEvent();
+        event.begin();
+        // Only count visited nodes when recording, that's for every node of every path
+        var longest = findLongestInGraph(start, 0, graph, Set.of(start), end, event.isEnabled() ? event : null);
+        if (event.shouldCommit()) {
+            event.junctions = graph.size();
+            event.longest = longest;
+            event.commit();
+        }
+        return longest;
     }
 
-    static long findLongestInGraph(Pos pos, long distance, Map<Pos, List<Edge>> graph, Set<Pos> used, Pos end) {
+    static long findLongestInGraph(Pos pos, long distance, Map<Pos, List<Edge>> graph, Set<Pos> used, Pos end, LongestPathEvent event) {
+        if (event != null) {
+            event.nodesVisited++;
+        }
         var max = 0L;
         for (Edge edge : graph.get(pos)) {
             // Could use a BitSet of node indices instead. Currently takes about 13 seconds to run with this.
@@ -151,7 +182,7 @@ public class Day23 {
             if (!edge.pos().equals(end)) {
                 var newUsed = new HashSet<>(used);
                 newUsed.add(edge.pos());
-                newDistance = findLongestInGraph(edge.pos(), newDistance, graph, newUsed, end);
+                newDistance = findLongestInGraph(edge.pos(), newDistance, graph, newUsed, end, event);
             }
             max = Math.max(max, newDistance);
         }
@@ -159,16 +190,20 @@ public class Day23 {
         return max;
     }
 
-    static Map<Pos, Tile> parse(String input) {
-        return Grids.parse(input, s -> switch (s) {
-            case "." -> new Path();
-            case ">" -> new Slope(Direction.RIGHT);
-            case "v" -> new Slope(Direction.DOWN);
-            case "<" -> new Slope(Direction.LEFT);
-            case "^" -> new Slope(Direction.UP);
-            case "#" -> null;
-            default -> throw new IllegalStateException("Unexpected value: " + s);
-        });
+    static CharGrid parse(String input) {
+        return CharGrid.parse(input);
+    }
+
+    static Tile tile(CharGrid map, Pos pos) {
+        return switch (map.getOrDefault(pos, '#')) {
+            case '.' -> PATH;
+            case '>' -> SLOPE_RIGHT;
+            case 'v' -> SLOPE_DOWN;
+            case '<' -> SLOPE_LEFT;
+            case '^' -> SLOPE_UP;
+            case '#' -> null;
+            default -> throw new IllegalStateException("Unexpected value: " + map.get(pos));
+        };
     }
 
     @Test
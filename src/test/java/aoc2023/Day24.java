@@ -64,11 +64,13 @@ public class Day24 {
     static List<Hailstone> parse(String input) {
         var hailstones = new ArrayList<Hailstone>();
         var lines = input.split("\n");
+        // px, py, pz @ vx, vy, vz
+        var numbers = new long[6];
         for (var line : lines) {
-            var parts = line.split(" @ ");
-            var coords = Parsing.numbersLong(parts[0]);
-            var velocity = Parsing.numbersLong(parts[1]);
-            hailstones.add(new Hailstone(new PosLong(coords.get(0), coords.get(1), coords.get(2)), new Velocity(velocity.get(0), velocity.get(1), velocity.get(2))));
+            if (Parsing.numbersLong(line, numbers) != 6) {
+                throw new IllegalArgumentException("Can't parse hailstone " + line);
+            }
+            hailstones.add(new Hailstone(new PosLong(numbers[0], numbers[1], numbers[2]), new Velocity(numbers[3], numbers[4], numbers[5])));
         }
         return hailstones;
     }
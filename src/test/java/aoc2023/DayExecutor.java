@@ -0,0 +1,97 @@
+package aoc2023;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the parts of multiple days concurrently: inputs are loaded on virtual threads, the solve methods run on a
+ * ForkJoinPool with a bounded number of threads. Both parts of a day start as soon as its input is loaded, so a full
+ * run takes about as long as the slowest part instead of the sum of all of them.
+ * <p>
+ * CPU time is the time of the thread running the part. Solutions that use parallel streams also use the common
+ * pool, which isn't included.
+ */
+public class DayExecutor {
+
+    record Result(int day, String part, Object result, Throwable failure, long loadNanos, long wallNanos,
+                  long cpuNanos) {
+    }
+
+    record Report(List<Result> results, long makespanNanos) {
+        long totalWallNanos() {
+            return results.stream().mapToLong(Result::wallNanos).sum();
+        }
+    }
+
+    private record Loaded(String input, long loadNanos) {
+    }
+
+    static Report run(Collection<Integer> days, String size, int parallelism) {
+        var start = System.nanoTime();
+        var futures = new ArrayList<CompletableFuture<Result>>();
+        try (var loaders = Executors.newVirtualThreadPerTaskExecutor();
+             var solvers = new ForkJoinPool(parallelism)) {
+            for (int day : days) {
+                var parts = DayRunner.findParts(day);
+                if (parts.isEmpty() || !Inputs.exists(day, size)) {
+                    continue;
+                }
+                var loaded = CompletableFuture.supplyAsync(() -> load(day, size), loaders);
+                for (Method part : parts) {
+                    futures.add(loaded.thenApplyAsync(l -> solve(day, part, l), solvers)
+                            .exceptionally(e -> failed(day, part, e)));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        }
+        var results = futures.stream().map(CompletableFuture::join).toList();
+        return new Report(results, System.nanoTime() - start);
+    }
+
+    private static Loaded load(int day, String size) {
+        var start = System.nanoTime();
+        var input = Inputs.load(day, size);
+        return new Loaded(input, System.nanoTime() - start);
+    }
+
+    private static Result solve(int day, Method part, Loaded loaded) {
+        var partName = partName(part);
+        if (part.getParameterCount() != 1) {
+            return new Result(day, partName, "skipped", null, loaded.loadNanos(), 0, 0);
+        }
+        var threads = ManagementFactory.getThreadMXBean();
+        var cpuStart = threads.getCurrentThreadCpuTime();
+        var start = System.nanoTime();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = part.invoke(null, loaded.input());
+        } catch (IllegalAccessException e) {
+            failure = e;
+        } catch (InvocationTargetException e) {
+            failure = e.getCause();
+        } catch (StackOverflowError e) {
+            failure = e;
+        }
+        var wall = System.nanoTime() - start;
+        var cpu = threads.getCurrentThreadCpuTime() - cpuStart;
+        return new Result(day, partName, result, failure, loaded.loadNanos(), wall, cpu);
+    }
+
+    private static Result failed(int day, Method part, Throwable e) {
+        var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        return new Result(day, partName(part), null, cause, 0, 0, 0);
+    }
+
+    private static String partName(Method part) {
+        return part.getName().substring("solve".length());
+    }
+}
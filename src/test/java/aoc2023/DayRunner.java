@@ -0,0 +1,238 @@
+package aoc2023;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Runs the solutions without JUnit and prints how long each part takes, e.g.:
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes aoc2023.DayRunner --days 1-5,8 --warmup 5 --repeat 10
+ * </pre>
+ * "Cold" is the very first call of a solve method, "warm" are the calls after the warmup calls.
+ * <p>
+ * With {@code --parallel N}, all parts run once, concurrently on N threads (see {@link DayExecutor}), and the
+ * table shows load, wall and CPU time per part and how long the whole run took.
+ */
+public class DayRunner {
+
+    private static final String USAGE =
+            "expected --days 1,3-5 --warmup N --repeat N --size input --verbose --parallel N";
+
+    record Options(TreeSet<Integer> days, int warmup, int repeat, String size, boolean verbose, int parallel) {
+    }
+
+    record Timing(Object result, long coldNanos, long warmAverageNanos, long warmMinNanos) {
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = parseArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        if (options.parallel() > 0) {
+            runParallel(options);
+            return;
+        }
+        var out = System.out;
+        out.printf("%-4s %-5s %20s %12s %12s %12s%n", "Day", "Part", "Result", "Cold ms", "Warm avg ms", "Warm min ms");
+        for (int day : options.days()) {
+            var parts = findParts(day);
+            if (parts.isEmpty()) {
+                continue;
+            }
+            if (!Inputs.exists(day, options.size())) {
+                out.printf("%-4d no input%n", day);
+                continue;
+            }
+            var input = Inputs.load(day, options.size());
+            for (Method part : parts) {
+                var partName = part.getName().substring("solve".length());
+                if (part.getParameterCount() != 1) {
+                    out.printf("%-4d %-5s %20s%n", day, partName, "skipped");
+                    continue;
+                }
+                if (!options.verbose()) {
+                    // Lots of solutions print progress, keep that out of the table
+                    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                }
+                try {
+                    var timing = time(part, input, options.warmup(), options.repeat());
+                    out.printf("%-4d %-5s %20s %12.3f %12.3f %12.3f%n", day, partName, timing.result(),
+                            millis(timing.coldNanos()), millis(timing.warmAverageNanos()), millis(timing.warmMinNanos()));
+                } catch (RuntimeException | StackOverflowError e) {
+                    out.printf("%-4d %-5s %20s%n", day, partName, "failed: " + e);
+                } finally {
+                    System.setOut(out);
+                }
+            }
+        }
+    }
+
+    static void runParallel(Options options) {
+        var out = System.out;
+        if (!options.verbose()) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+        DayExecutor.Report report;
+        try {
+            report = DayExecutor.run(options.days(), options.size(), options.parallel());
+        } finally {
+            System.setOut(out);
+        }
+        out.printf("%-4s %-5s %20s %12s %12s %12s%n", "Day", "Part", "Result", "Load ms", "Wall ms", "CPU ms");
+        for (DayExecutor.Result result : report.results()) {
+            if (result.failure() != null) {
+                out.printf("%-4d %-5s %20s%n", result.day(), result.part(), "failed: " + result.failure());
+            } else {
+                out.printf("%-4d %-5s %20s %12.3f %12.3f %12.3f%n", result.day(), result.part(), result.result(),
+                        millis(result.loadNanos()), millis(result.wallNanos()), millis(result.cpuNanos()));
+            }
+        }
+        out.printf("Makespan %.3f ms, sum of wall times %.3f ms%n", millis(report.makespanNanos()),
+                millis(report.totalWallNanos()));
+    }
+
+    static Timing time(Method part, String input, int warmup, int repeat) {
+        var start = System.nanoTime();
+        var result = invoke(part, input);
+        var cold = System.nanoTime() - start;
+
+        for (int i = 0; i < warmup; i++) {
+            invoke(part, input);
+        }
+
+        var total = 0L;
+        var min = Long.MAX_VALUE;
+        for (int i = 0; i < repeat; i++) {
+            var runStart = System.nanoTime();
+            invoke(part, input);
+            var duration = System.nanoTime() - runStart;
+            total += duration;
+            min = Math.min(min, duration);
+        }
+        return new Timing(result, cold, repeat > 0 ? total / repeat : 0, repeat > 0 ? min : 0);
+    }
+
+    /**
+     * @return the solve1 and solve2 methods of a day, empty if the day doesn't exist
+     */
+    static List<Method> findParts(int day) {
+        Class<?> dayClass;
+        try {
+            dayClass = Class.forName(String.format("aoc2023.Day%02d", day));
+        } catch (ClassNotFoundException e) {
+            return List.of();
+        }
+        var parts = new ArrayList<Method>();
+        for (var name : List.of("solve1", "solve2")) {
+            try {
+                parts.add(dayClass.getDeclaredMethod(name, String.class));
+                continue;
+            } catch (NoSuchMethodException e) {
+                // Some parts need extra arguments (e.g. Day13.solve2), these are reported as skipped
+            }
+            for (Method method : dayClass.getDeclaredMethods()) {
+                if (method.getName().equals(name)) {
+                    parts.add(method);
+                    break;
+                }
+            }
+        }
+        return parts;
+    }
+
+    static Options parseArgs(String[] args) {
+        var days = new TreeSet<Integer>();
+        var warmup = 3;
+        var repeat = 5;
+        var size = "input";
+        var verbose = false;
+        var parallel = 0;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--days" -> days.addAll(daysValue(args, ++i));
+                case "--warmup" -> warmup = intValue(args, ++i);
+                case "--repeat" -> repeat = intValue(args, ++i);
+                case "--size" -> size = value(args, ++i);
+                case "--verbose" -> verbose = true;
+                case "--parallel" -> parallel = intValue(args, ++i);
+                default -> throw new IllegalArgumentException("Unknown argument " + args[i] + ", " + USAGE);
+            }
+        }
+        if (days.isEmpty()) {
+            for (int day = 1; day <= 25; day++) {
+                days.add(day);
+            }
+        }
+        return new Options(days, warmup, repeat, size, verbose, parallel);
+    }
+
+    // Value of the option before index i
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + args[i - 1] + ", " + USAGE);
+        }
+        return args[i];
+    }
+
+    private static int intValue(String[] args, int i) {
+        var value = value(args, i);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number " + value + " for " + args[i - 1] + ", " + USAGE);
+        }
+    }
+
+    private static List<Integer> daysValue(String[] args, int i) {
+        var value = value(args, i);
+        try {
+            return parseDays(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid days " + value + " for " + args[i - 1] + ", " + USAGE);
+        }
+    }
+
+    static List<Integer> parseDays(String s) {
+        var days = new ArrayList<Integer>();
+        for (var part : s.split(",")) {
+            var range = part.split("-");
+            var from = Integer.parseInt(range[0].trim());
+            var to = range.length > 1 ? Integer.parseInt(range[1].trim()) : from;
+            for (int day = from; day <= to; day++) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    private static Object invoke(Method part, String input) {
+        try {
+            return part.invoke(null, input);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,1328 @@
+package aoc2023;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.ThrowingConsumer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Generates valid puzzle inputs of any size, for benchmarks and capacity planning. The same day, scale and seed
+ * always give the same input. What the scale means depends on the day (number of lines, width of a grid, etc.),
+ * see the comment on each generator.
+ * <p>
+ * Some solutions rely on properties of the real input that a generated input doesn't have, e.g. Day20 and Day25
+ * hardcode names from it, and Day21 part 2 assumes the garden is filled evenly within a few tiles. They still run
+ * on generated inputs, but the answers don't mean anything.
+ */
+public class Generators {
+
+    // Part 2 takes about 15 seconds for this size, and grows with the cube of it
+    static final int MAX_DAY21_SIZE = 201;
+
+    static String generate(int day, int scale, long seed) {
+        if (scale < 1) {
+            throw new IllegalArgumentException("Scale needs to be at least 1: " + scale);
+        }
+        var random = new Random(seed);
+        return switch (day) {
+            case 1 -> day01(random, scale);
+            case 2 -> day02(random, scale);
+            case 3 -> day03(random, scale);
+            case 4 -> day04(random, scale);
+            case 5 -> day05(random, scale);
+            case 6 -> day06(random, scale);
+            case 7 -> day07(random, scale);
+            case 8 -> day08(random, scale);
+            case 9 -> day09(random, scale);
+            case 10 -> day10(random, scale);
+            case 11 -> day11(random, scale);
+            case 12 -> day12(random, scale);
+            case 13 -> day13(random, scale);
+            case 14 -> day14(random, scale);
+            case 15 -> day15(random, scale);
+            case 16 -> day16(random, scale);
+            case 17 -> day17(random, scale);
+            case 18 -> day18(random, scale);
+            case 19 -> day19(random, scale);
+            case 20 -> day20(random, scale);
+            case 21 -> day21(random, scale);
+            case 22 -> day22(random, scale);
+            case 23 -> day23(random, scale);
+            case 24 -> day24(random, scale);
+            case 25 -> day25(random, scale);
+            default -> throw new IllegalArgumentException("No generator for day " + day);
+        };
+    }
+
+    // Scale: number of lines
+    static String day01(Random random, int scale) {
+        var words = new String[]{"one", "two", "three", "four", "five", "six", "seven", "eight", "nine"};
+        var sb = new StringBuilder();
+        for (int i = 0; i < scale; i++) {
+            var length = 5 + random.nextInt(40);
+            var line = new StringBuilder();
+            while (line.length() < length) {
+                switch (random.nextInt(8)) {
+                    case 0 -> line.append(words[random.nextInt(words.length)]);
+                    case 1 -> line.append(digit(random));
+                    default -> line.append(letter(random));
+                }
+            }
+            // Part 1 needs at least one real digit per line
+            line.insert(random.nextInt(line.length() + 1), digit(random));
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of games
+    static String day02(Random random, int scale) {
+        var colors = new ArrayList<>(List.of("red", "green", "blue"));
+        var sb = new StringBuilder();
+        for (int game = 1; game <= scale; game++) {
+            sb.append("Game ").append(game).append(": ");
+            var draws = 1 + random.nextInt(6);
+            for (int draw = 0; draw < draws; draw++) {
+                if (draw > 0) {
+                    sb.append("; ");
+                }
+                Collections.shuffle(colors, random);
+                var colorCount = 1 + random.nextInt(colors.size());
+                for (int c = 0; c < colorCount; c++) {
+                    if (c > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append(1 + random.nextInt(20)).append(' ').append(colors.get(c));
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: width and height of the schematic
+    static String day03(Random random, int scale) {
+        var symbols = "*#+$/@=%-&";
+        var sb = new StringBuilder();
+        for (int y = 0; y < scale; y++) {
+            var line = new char[scale];
+            Arrays.fill(line, '.');
+            var x = 0;
+            while (x < scale) {
+                var r = random.nextInt(100);
+                var length = 1 + random.nextInt(3);
+                if (r < 10 && x + length <= scale) {
+                    line[x] = (char) ('1' + random.nextInt(9));
+                    for (int i = 1; i < length; i++) {
+                        line[x + i] = (char) ('0' + random.nextInt(10));
+                    }
+                    // Leave a gap so that numbers on the same line don't merge
+                    x += length + 1;
+                } else {
+                    if (r < 14) {
+                        line[x] = symbols.charAt(random.nextInt(symbols.length()));
+                    }
+                    x++;
+                }
+            }
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of cards
+    static String day04(Random random, int scale) {
+        var pool = new int[99];
+        Arrays.setAll(pool, i -> i + 1);
+        var sb = new StringBuilder();
+        for (int card = 1; card <= scale; card++) {
+            // Mostly no matches, so that the number of copies doesn't grow exponentially. Cards never win copies
+            // past the end of the table.
+            var matches = random.nextInt(100) < 55 ? 0 : 1 + random.nextInt(3);
+            matches = Math.min(matches, scale - card);
+            shuffle(pool, random);
+            var have = new int[25];
+            System.arraycopy(pool, 0, have, 0, matches);
+            System.arraycopy(pool, 10, have, matches, have.length - matches);
+            shuffle(have, random);
+
+            sb.append("Card ").append(card).append(':');
+            for (int i = 0; i < 10; i++) {
+                sb.append(String.format(" %2d", pool[i]));
+            }
+            sb.append(" |");
+            for (int number : have) {
+                sb.append(String.format(" %2d", number));
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of ranges per map. Seed ranges get longer with the scale too.
+    static String day05(Random random, int scale) {
+        var types = List.of("seed", "soil", "fertilizer", "water", "light", "temperature", "humidity", "location");
+        var space = 1L << 32;
+        var sb = new StringBuilder("seeds:");
+        for (int i = 0; i < 10; i++) {
+            var length = 1 + (long) random.nextInt(Math.min(scale, 1 << 20) * 100);
+            var start = (long) (random.nextDouble() * (space - length));
+            sb.append(' ').append(start).append(' ').append(length);
+        }
+        sb.append('\n');
+
+        var ranges = (int) Math.min(scale, space);
+        for (int t = 0; t < types.size() - 1; t++) {
+            sb.append('\n').append(types.get(t)).append("-to-").append(types.get(t + 1)).append(" map:\n");
+            // Cut the whole space into ranges, then map them to the ranges laid out in a shuffled order
+            var cuts = new TreeSet<Long>();
+            cuts.add(0L);
+            while (cuts.size() < ranges) {
+                cuts.add(1 + (long) (random.nextDouble() * (space - 1)));
+            }
+            var starts = cuts.stream().mapToLong(Long::longValue).toArray();
+            var order = new int[starts.length];
+            Arrays.setAll(order, i -> i);
+            shuffle(order, random);
+            var destination = 0L;
+            for (int index : order) {
+                var start = starts[index];
+                var length = (index + 1 < starts.length ? starts[index + 1] : space) - start;
+                sb.append(destination).append(' ').append(start).append(' ').append(length).append('\n');
+                destination += length;
+            }
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of races. Note that part 2 only fits into a long for a few races, see Day06.solve2Big.
+    static String day06(Random random, int scale) {
+        var times = new StringBuilder("Time:     ");
+        var distances = new StringBuilder("Distance: ");
+        for (int i = 0; i < scale; i++) {
+            var time = 7 + random.nextInt(93);
+            var best = (long) (time / 2) * (time - time / 2);
+            var record = (long) (random.nextDouble() * best);
+            times.append(String.format(" %4d", time));
+            distances.append(String.format(" %4d", record));
+        }
+        return times + "\n" + distances + "\n";
+    }
+
+    // Scale: number of hands
+    static String day07(Random random, int scale) {
+        var cards = "23456789TJQKA";
+        var seen = new HashSet<String>();
+        var sb = new StringBuilder();
+        for (int i = 0; i < scale; i++) {
+            String hand;
+            do {
+                var chars = new char[5];
+                for (int c = 0; c < chars.length; c++) {
+                    chars[c] = cards.charAt(random.nextInt(cards.length()));
+                }
+                hand = new String(chars);
+                // There are only 13^5 different hands, allow duplicates after that
+            } while (!seen.add(hand) && seen.size() < 300_000);
+            sb.append(hand).append(' ').append(1 + random.nextInt(1000)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: roughly the number of nodes.
+    // Like the real input, each ghost walks a loop of a prime number times the instruction count, with its Z node at
+    // the end of the loop. Ghost 0 goes from AAA to ZZZ.
+    static String day08(Random random, int scale) {
+        var primes = new ArrayList<>(List.of(37, 41, 43, 47, 53, 59, 61, 67, 71, 73, 79, 83, 89, 97));
+        Collections.shuffle(primes, random);
+        var loops = primes.subList(0, 6);
+        var period = Math.max(1, scale / loops.stream().mapToInt(Integer::intValue).sum());
+
+        var instructions = new char[period];
+        for (int i = 0; i < period; i++) {
+            instructions[i] = random.nextBoolean() ? 'L' : 'R';
+        }
+
+        var total = 0;
+        for (int loop : loops) {
+            total += loop * period;
+        }
+        var nameLength = 3;
+        while (24 * Math.pow(26, nameLength - 1) <= total) {
+            nameLength++;
+        }
+
+        var intermediates = new ArrayList<String>();
+        var nodes = new LinkedHashMap<String, String[]>();
+        for (int ghost = 0; ghost < loops.size(); ghost++) {
+            var prefix = upperName(ghost, nameLength - 1);
+            var start = ghost == 0 ? "AAA" : prefix + "A";
+            var end = ghost == 0 ? "ZZZ" : prefix + "Z";
+            var length = loops.get(ghost) * period;
+            var path = new ArrayList<String>();
+            path.add(start);
+            for (int i = 1; i < length; i++) {
+                // Last letter is never A or Z
+                var name = upperName(intermediates.size() / 24, nameLength - 1) + (char) ('B' + intermediates.size() % 24);
+                intermediates.add(name);
+                path.add(name);
+            }
+            path.add(end);
+            for (int i = 0; i < length; i++) {
+                var next = path.get(i + 1);
+                // The other direction goes somewhere random, it's never taken
+                var other = intermediates.isEmpty() ? next : intermediates.get(random.nextInt(intermediates.size()));
+                nodes.put(path.get(i), instructions[i % period] == 'L' ? new String[]{next, other} : new String[]{other, next});
+            }
+            // Z continues like A, so that the ghost loops
+            nodes.put(end, nodes.get(start));
+        }
+
+        var lines = new ArrayList<String>();
+        for (var entry : nodes.entrySet()) {
+            lines.add(entry.getKey() + " = (" + entry.getValue()[0] + ", " + entry.getValue()[1] + ")");
+        }
+        Collections.shuffle(lines, random);
+        return new String(instructions) + "\n\n" + String.join("\n", lines) + "\n";
+    }
+
+    // Scale: number of lines. Each line is a polynomial of degree 1 to 5.
+    static String day09(Random random, int scale) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < scale; i++) {
+            var degree = 1 + random.nextInt(5);
+            var coefficients = new long[degree + 1];
+            for (int c = 0; c <= degree; c++) {
+                coefficients[c] = random.nextInt(11) - 5;
+            }
+            for (int x = 0; x < 21; x++) {
+                var value = 0L;
+                for (int c = degree; c >= 0; c--) {
+                    value = value * x + coefficients[c];
+                }
+                if (x > 0) {
+                    sb.append(' ');
+                }
+                sb.append(value);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: width and height of the map.
+    // The loop is the outline of a random tree, which never touches itself. Everything else is random junk pipes.
+    static String day10(Random random, int scale) {
+        var nodes = Math.max(2, (scale - 1) / 4);
+        var filled = treeShape(random, nodes, nodes, 2);
+        var corners = outlineDirections(filled);
+        var width = corners.length + 2;
+        var height = corners[0].length + 2;
+        var map = new char[height][width];
+        var junk = "|-LJ7F.";
+        for (char[] row : map) {
+            for (int x = 0; x < width; x++) {
+                row[x] = junk.charAt(random.nextInt(junk.length()));
+            }
+        }
+        var loop = new ArrayList<Pos>();
+        for (int x = 0; x < corners.length; x++) {
+            for (int y = 0; y < corners[0].length; y++) {
+                if (corners[x][y] != 0) {
+                    map[y + 1][x + 1] = pipe(corners[x][y]);
+                    loop.add(new Pos(x + 1, y + 1));
+                }
+            }
+        }
+        var start = loop.get(random.nextInt(loop.size()));
+        // Make sure that only the loop connects to the start
+        for (Pos neighbor : start.neighbors()) {
+            var x = neighbor.x() - 1;
+            var y = neighbor.y() - 1;
+            if (x < 0 || y < 0 || x >= corners.length || y >= corners[0].length || corners[x][y] == 0) {
+                map[neighbor.y()][neighbor.x()] = '.';
+            }
+        }
+        map[start.y()][start.x()] = 'S';
+        return lines(map);
+    }
+
+    // Scale: width and height of the image
+    static String day11(Random random, int scale) {
+        var emptyRows = new boolean[scale];
+        var emptyColumns = new boolean[scale];
+        for (int i = 0; i < scale; i++) {
+            emptyRows[i] = random.nextInt(10) == 0;
+            emptyColumns[i] = random.nextInt(10) == 0;
+        }
+        var map = new char[scale][scale];
+        for (int y = 0; y < scale; y++) {
+            for (int x = 0; x < scale; x++) {
+                map[y][x] = !emptyRows[y] && !emptyColumns[x] && random.nextInt(50) == 0 ? '#' : '.';
+            }
+        }
+        return lines(map);
+    }
+
+    // Scale: number of rows
+    static String day12(Random random, int scale) {
+        var sb = new StringBuilder();
+        for (int i = 0; i < scale; i++) {
+            var length = 8 + random.nextInt(13);
+            var springs = new char[length];
+            for (int s = 0; s < length; s++) {
+                springs[s] = random.nextInt(5) < 2 ? '#' : '.';
+            }
+            springs[random.nextInt(length)] = '#';
+            var groups = new ArrayList<String>();
+            var run = 0;
+            for (int s = 0; s <= length; s++) {
+                if (s < length && springs[s] == '#') {
+                    run++;
+                } else if (run > 0) {
+                    groups.add(String.valueOf(run));
+                    run = 0;
+                }
+            }
+            for (int s = 0; s < length; s++) {
+                if (random.nextBoolean()) {
+                    springs[s] = '?';
+                }
+            }
+            sb.append(springs).append(' ').append(String.join(",", groups)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of patterns.
+    // Each pattern mirrors exactly at one line, and at exactly one other line with a single smudge.
+    static String day13(Random random, int scale) {
+        var blocks = new ArrayList<String>();
+        while (blocks.size() < scale) {
+            var width = 5 + random.nextInt(13);
+            var height = 5 + random.nextInt(13);
+            // Rows mirror between row a - 1 and a, close to an edge so that some rows are not part of it
+            var a = random.nextBoolean() ? 1 + random.nextInt(2) : height - 1 - random.nextInt(2);
+            // Columns mirror between column b - 1 and b
+            var b = 1 + random.nextInt(width - 1);
+
+            // Cells that need to be the same to have both reflections end up in one group
+            var groups = new int[width * height];
+            Arrays.setAll(groups, i -> i);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    var mirrorY = 2 * a - 1 - y;
+                    if (mirrorY >= 0 && mirrorY < height) {
+                        union(groups, y * width + x, mirrorY * width + x);
+                    }
+                    var mirrorX = 2 * b - 1 - x;
+                    if (mirrorX >= 0 && mirrorX < width) {
+                        union(groups, y * width + x, y * width + mirrorX);
+                    }
+                }
+            }
+            var rock = new boolean[width * height];
+            for (int i = 0; i < groups.length; i++) {
+                rock[i] = random.nextBoolean();
+            }
+            var grid = new boolean[height][width];
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    grid[y][x] = rock[find(groups, y * width + x)];
+                }
+            }
+
+            // The smudge: a cell that is part of the column reflection but not of the row reflection
+            var rowReach = Math.min(a, height - a);
+            var columnReach = Math.min(b, width - b);
+            var smudgeRows = new ArrayList<Integer>();
+            for (int y = 0; y < height; y++) {
+                if (y < a - rowReach || y >= a + rowReach) {
+                    smudgeRows.add(y);
+                }
+            }
+            if (smudgeRows.isEmpty()) {
+                continue;
+            }
+            var smudgeY = smudgeRows.get(random.nextInt(smudgeRows.size()));
+            var smudgeX = b - columnReach + random.nextInt(2 * columnReach);
+            grid[smudgeY][smudgeX] = !grid[smudgeY][smudgeX];
+
+            if (random.nextBoolean()) {
+                grid = transpose(grid);
+            }
+            if (!hasOneReflectionAndOneSmudge(grid)) {
+                continue;
+            }
+            var map = new char[grid.length][grid[0].length];
+            for (int y = 0; y < grid.length; y++) {
+                for (int x = 0; x < grid[0].length; x++) {
+                    map[y][x] = grid[y][x] ? '#' : '.';
+                }
+            }
+            blocks.add(lines(map));
+        }
+        return String.join("\n", blocks);
+    }
+
+    // Scale: width and height of the platform
+    static String day14(Random random, int scale) {
+        var map = new char[scale][scale];
+        for (char[] row : map) {
+            for (int x = 0; x < scale; x++) {
+                var r = random.nextInt(100);
+                row[x] = r < 20 ? 'O' : r < 35 ? '#' : '.';
+            }
+        }
+        return lines(map);
+    }
+
+    // Scale: number of steps
+    static String day15(Random random, int scale) {
+        var labels = new String[Math.max(1, scale / 4)];
+        for (int i = 0; i < labels.length; i++) {
+            var label = new StringBuilder();
+            var length = 2 + random.nextInt(5);
+            for (int c = 0; c < length; c++) {
+                label.append(letter(random));
+            }
+            labels[i] = label.toString();
+        }
+        var sb = new StringBuilder();
+        for (int i = 0; i < scale; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(labels[random.nextInt(labels.length)]);
+            if (random.nextInt(10) < 3) {
+                sb.append('-');
+            } else {
+                sb.append('=').append(digit(random));
+            }
+        }
+        return sb.append('\n').toString();
+    }
+
+    // Scale: width and height of the contraption
+    static String day16(Random random, int scale) {
+        var tiles = "/\\|-";
+        var map = new char[scale][scale];
+        for (char[] row : map) {
+            for (int x = 0; x < scale; x++) {
+                row[x] = random.nextInt(10) == 0 ? tiles.charAt(random.nextInt(tiles.length())) : '.';
+            }
+        }
+        return lines(map);
+    }
+
+    // Scale: width and height of the city
+    static String day17(Random random, int scale) {
+        var map = new char[scale][scale];
+        for (char[] row : map) {
+            for (int x = 0; x < scale; x++) {
+                row[x] = digit(random);
+            }
+        }
+        return lines(map);
+    }
+
+    // Scale: roughly the number of instructions.
+    // The trench is the outline of a random tree. Part 1 and 2 use the same outline, stretched differently.
+    static String day18(Random random, int scale) {
+        var nodes = Math.max(2, (int) Math.sqrt(scale / 2.0));
+        var filled = treeShape(random, nodes, nodes, 1);
+        var corners = outlineDirections(filled);
+        var path = tracePath(corners);
+
+        var xs1 = stretch(random, corners.length, 6);
+        var ys1 = stretch(random, corners[0].length, 6);
+        var xs2 = stretch(random, corners.length, 0xFFFFF / corners.length);
+        var ys2 = stretch(random, corners[0].length, 0xFFFFF / corners[0].length);
+
+        var sb = new StringBuilder();
+        // Start at a corner so that the first and last instruction go in different directions
+        var startIndex = 0;
+        while (direction(path, startIndex - 1) == direction(path, startIndex)) {
+            startIndex++;
+        }
+        var i = 0;
+        while (i < path.size()) {
+            var from = path.get(Math.floorMod(startIndex + i, path.size()));
+            var dir = direction(path, startIndex + i);
+            var units = 0;
+            while (i < path.size() && direction(path, startIndex + i) == dir) {
+                units++;
+                i++;
+            }
+            var to = path.get(Math.floorMod(startIndex + i, path.size()));
+            var steps1 = Math.abs(xs1[to.x()] - xs1[from.x()]) + Math.abs(ys1[to.y()] - ys1[from.y()]);
+            var steps2 = Math.abs(xs2[to.x()] - xs2[from.x()]) + Math.abs(ys2[to.y()] - ys2[from.y()]);
+            var letter = switch (dir) {
+                case 0 -> 'U';
+                case 1 -> 'R';
+                case 2 -> 'D';
+                default -> 'L';
+            };
+            var code = switch (dir) {
+                case 0 -> 3;
+                case 1 -> 0;
+                case 2 -> 1;
+                default -> 2;
+            };
+            sb.append(letter).append(' ').append(steps1).append(" (#").append(String.format("%05x", steps2)).append(code).append(")\n");
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of workflows, and number of parts.
+    // Workflows form a tree starting at "in", so there are no loops.
+    static String day19(Random random, int scale) {
+        var ratings = "xmas";
+        var sb = new StringBuilder();
+        var queue = new ArrayList<String>();
+        queue.add("in");
+        var created = 1;
+        var nameLength = nameLength(scale, 3);
+        while (!queue.isEmpty()) {
+            var name = queue.removeFirst();
+            sb.append(name).append('{');
+            var conditions = 1 + random.nextInt(3);
+            for (int c = 0; c <= conditions; c++) {
+                String destination;
+                if (created < scale && random.nextInt(10) < 6) {
+                    destination = name(created++, nameLength);
+                    queue.add(destination);
+                } else {
+                    destination = random.nextBoolean() ? "A" : "R";
+                }
+                if (c < conditions) {
+                    sb.append(ratings.charAt(random.nextInt(4))).append(random.nextBoolean() ? '<' : '>')
+                            .append(1 + random.nextInt(4000)).append(':').append(destination).append(',');
+                } else {
+                    sb.append(destination);
+                }
+            }
+            sb.append("}\n");
+        }
+        sb.append('\n');
+        for (int i = 0; i < scale; i++) {
+            sb.append(String.format("{x=%d,m=%d,a=%d,s=%d}", 1 + random.nextInt(4000), 1 + random.nextInt(4000),
+                    1 + random.nextInt(4000), 1 + random.nextInt(4000))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of 12-bit counters.
+    // Like the real input, each counter is a chain of flip-flops with a conjunction that resets it when it reaches
+    // its period, a prime. Each counter goes through an inverter to dh, which goes to rx. With more than 5
+    // counters, the answer to part 2 doesn't fit into a long anymore.
+    static String day20(Random random, int scale) {
+        var periods = new ArrayList<Integer>();
+        for (int p = 2049; p < 4096; p += 2) {
+            if (java.math.BigInteger.valueOf(p).isProbablePrime(20)) {
+                periods.add(p);
+            }
+        }
+        Collections.shuffle(periods, random);
+        var nameLength = nameLength(scale * 14, 3);
+        var names = 0;
+
+        var sb = new StringBuilder();
+        var lines = new ArrayList<String>();
+        var firsts = new ArrayList<String>();
+        for (int counter = 0; counter < scale; counter++) {
+            var period = periods.get(counter % periods.size());
+            var bits = new String[12];
+            for (int i = 0; i < bits.length; i++) {
+                bits[i] = name(names++, nameLength);
+            }
+            var conjunction = name(names++, nameLength);
+            var inverter = name(names++, nameLength);
+            firsts.add(bits[0]);
+
+            var conjunctionDestinations = new ArrayList<String>();
+            for (int i = 0; i < bits.length; i++) {
+                var destinations = new ArrayList<String>();
+                if (i + 1 < bits.length) {
+                    destinations.add(bits[i + 1]);
+                }
+                if ((period & (1 << i)) != 0) {
+                    destinations.add(conjunction);
+                } else {
+                    conjunctionDestinations.add(bits[i]);
+                }
+                Collections.shuffle(destinations, random);
+                lines.add("%" + bits[i] + " -> " + String.join(", ", destinations));
+            }
+            conjunctionDestinations.add(bits[0]);
+            conjunctionDestinations.add(inverter);
+            Collections.shuffle(conjunctionDestinations, random);
+            lines.add("&" + conjunction + " -> " + String.join(", ", conjunctionDestinations));
+            lines.add("&" + inverter + " -> dh");
+        }
+        lines.add("&dh -> rx");
+        Collections.shuffle(lines, random);
+        sb.append("broadcaster -> ").append(String.join(", ", firsts)).append('\n');
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: width and height of the garden, rounded up to an odd number, at most MAX_DAY21_SIZE.
+    // Like the real input, the start is in the middle with free lines to the borders, and there are no
+    // unreachable gardens.
+    static String day21(Random random, int scale) {
+        var size = Math.max(5, scale | 1);
+        if (size > MAX_DAY21_SIZE) {
+            throw new IllegalArgumentException("Day 21 gardens can be at most " + MAX_DAY21_SIZE + " wide, part 2 "
+                    + "explores each tile on the edge of the reachable area and takes minutes for bigger ones: " + scale);
+        }
+        var center = size / 2;
+        var map = new char[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                var free = x == center || y == center || x == 0 || y == 0 || x == size - 1 || y == size - 1
+                        || Math.abs(x - center) + Math.abs(y - center) == center;
+                map[y][x] = !free && random.nextInt(100) < 15 ? '#' : '.';
+            }
+        }
+        // Fill in gardens that can't be reached
+        var reachable = new boolean[size][size];
+        var queue = new ArrayList<Pos>();
+        queue.add(new Pos(center, center));
+        reachable[center][center] = true;
+        while (!queue.isEmpty()) {
+            var pos = queue.removeLast();
+            for (Pos neighbor : pos.neighbors()) {
+                if (neighbor.x() >= 0 && neighbor.y() >= 0 && neighbor.x() < size && neighbor.y() < size
+                        && map[neighbor.y()][neighbor.x()] == '.' && !reachable[neighbor.y()][neighbor.x()]) {
+                    reachable[neighbor.y()][neighbor.x()] = true;
+                    queue.add(neighbor);
+                }
+            }
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (!reachable[y][x]) {
+                    map[y][x] = '#';
+                }
+            }
+        }
+        map[center][center] = 'S';
+        return lines(map);
+    }
+
+    // Scale: number of bricks
+    static String day22(Random random, int scale) {
+        var lines = new ArrayList<String>();
+        for (int i = 0; i < scale; i++) {
+            var x = random.nextInt(10);
+            var y = random.nextInt(10);
+            // Bricks are at most 4 long, so starting each one 4 higher than the previous means they never overlap
+            var z = 1 + 4 * i;
+            var length = random.nextInt(4);
+            var to = switch (random.nextInt(3)) {
+                case 0 -> new int[]{Math.min(9, x + length), y, z};
+                case 1 -> new int[]{x, Math.min(9, y + length), z};
+                default -> new int[]{x, y, z + length};
+            };
+            lines.add(x + "," + y + "," + z + "~" + to[0] + "," + to[1] + "," + to[2]);
+        }
+        Collections.shuffle(lines, random);
+        return String.join("\n", lines) + "\n";
+    }
+
+    // Scale: roughly the number of junctions.
+    // Junctions are on a lattice, connected by straight paths of random lengths. Like the real input, slopes around
+    // junctions only allow going right and down. Part 2 is exponential in the number of junctions, the real input
+    // has 36.
+    static String day23(Random random, int scale) {
+        var n = Math.max(2, (int) Math.sqrt(scale));
+        var xs = new int[n];
+        var ys = new int[n];
+        xs[0] = 1;
+        ys[0] = 2;
+        for (int i = 1; i < n; i++) {
+            xs[i] = xs[i - 1] + 4 + random.nextInt(7);
+            ys[i] = ys[i - 1] + 4 + random.nextInt(7);
+        }
+        var width = xs[n - 1] + 2;
+        var height = ys[n - 1] + 3;
+        var map = new char[height][width];
+        for (char[] row : map) {
+            Arrays.fill(row, '#');
+        }
+        for (int j = 0; j < n; j++) {
+            for (int i = 0; i < n; i++) {
+                map[ys[j]][xs[i]] = '.';
+                if (i + 1 < n) {
+                    for (int x = xs[i] + 1; x < xs[i + 1]; x++) {
+                        map[ys[j]][x] = x == xs[i] + 1 || x == xs[i + 1] - 1 ? '>' : '.';
+                    }
+                }
+                if (j + 1 < n) {
+                    for (int y = ys[j] + 1; y < ys[j + 1]; y++) {
+                        map[y][xs[i]] = y == ys[j] + 1 || y == ys[j + 1] - 1 ? 'v' : '.';
+                    }
+                }
+            }
+        }
+        map[0][xs[0]] = '.';
+        map[1][xs[0]] = '.';
+        map[height - 2][xs[n - 1]] = '.';
+        map[height - 1][xs[n - 1]] = '.';
+        return lines(map);
+    }
+
+    // Scale: number of hailstones.
+    // There is a rock that hits every hailstone, so part 2 has an answer.
+    static String day24(Random random, int scale) {
+        var rock = new long[3];
+        var rockVelocity = new long[3];
+        for (int i = 0; i < 3; i++) {
+            rock[i] = 200_000_000_000_000L + (long) (random.nextDouble() * 200_000_000_000_000L);
+            rockVelocity[i] = random.nextInt(401) - 200;
+        }
+        var times = new HashSet<Long>();
+        var sb = new StringBuilder();
+        for (int h = 0; h < scale; h++) {
+            long time;
+            do {
+                time = 100_000_000_000L + (long) (random.nextDouble() * 200_000_000_000L);
+            } while (!times.add(time));
+            var position = new long[3];
+            var velocity = new long[3];
+            for (int i = 0; i < 3; i++) {
+                velocity[i] = random.nextInt(601) - 300;
+                position[i] = rock[i] + time * (rockVelocity[i] - velocity[i]);
+            }
+            sb.append(String.format("%d, %d, %d @ %d, %d, %d", position[0], position[1], position[2],
+                    velocity[0], velocity[1], velocity[2])).append('\n');
+        }
+        return sb.toString();
+    }
+
+    // Scale: number of components.
+    // Two well connected halves (every component has at least 4 connections within its half), with exactly three
+    // wires between them.
+    static String day25(Random random, int scale) {
+        var count = Math.max(12, scale);
+        var nameLength = nameLength(count, 3);
+        var names = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            names.add(name(i, nameLength));
+        }
+        Collections.shuffle(names, random);
+        var half = count / 2;
+        var edges = new LinkedHashMap<String, List<String>>();
+        for (int part = 0; part < 2; part++) {
+            var from = part == 0 ? 0 : half;
+            var to = part == 0 ? half : count;
+            for (int i = from + 1; i < to; i++) {
+                var connections = new TreeSet<Integer>();
+                var wanted = Math.min(4, i - from);
+                while (connections.size() < wanted) {
+                    connections.add(from + random.nextInt(i - from));
+                }
+                for (int j : connections) {
+                    edges.computeIfAbsent(names.get(i), k -> new ArrayList<>()).add(names.get(j));
+                }
+            }
+        }
+        var cut = new HashSet<String>();
+        while (cut.size() < 3) {
+            var a = random.nextInt(half);
+            var b = half + random.nextInt(count - half);
+            if (cut.add(a + "-" + b)) {
+                edges.computeIfAbsent(names.get(a), k -> new ArrayList<>()).add(names.get(b));
+            }
+        }
+        var sb = new StringBuilder();
+        for (var entry : edges.entrySet()) {
+            sb.append(entry.getKey()).append(": ").append(String.join(" ", entry.getValue())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A random tree on a grid of nodes, drawn as filled pixels: nodes at even positions, edges between them, each
+     * pixel scaled up to a square of {@code pixelSize}. The shape has no holes and no cells that only touch
+     * diagonally, so its outline is a simple loop.
+     */
+    static boolean[][] treeShape(Random random, int width, int height, int pixelSize) {
+        var inTree = new boolean[width][height];
+        var filled = new boolean[(2 * width - 1) * pixelSize][(2 * height - 1) * pixelSize];
+        // Randomized Prim's: edges from the tree to outside nodes, as {x, y, dx, dy}
+        var frontier = new ArrayList<int[]>();
+        inTree[0][0] = true;
+        fill(filled, 0, 0, pixelSize);
+        addFrontier(frontier, 0, 0, width, height);
+        while (!frontier.isEmpty()) {
+            var index = random.nextInt(frontier.size());
+            var edge = frontier.get(index);
+            frontier.set(index, frontier.getLast());
+            frontier.removeLast();
+            var x = edge[0] + edge[2];
+            var y = edge[1] + edge[3];
+            if (inTree[x][y]) {
+                continue;
+            }
+            inTree[x][y] = true;
+            fill(filled, 2 * x, 2 * y, pixelSize);
+            fill(filled, 2 * edge[0] + edge[2], 2 * edge[1] + edge[3], pixelSize);
+            addFrontier(frontier, x, y, width, height);
+        }
+        return filled;
+    }
+
+    private static void addFrontier(List<int[]> frontier, int x, int y, int width, int height) {
+        if (x > 0) {
+            frontier.add(new int[]{x, y, -1, 0});
+        }
+        if (x + 1 < width) {
+            frontier.add(new int[]{x, y, 1, 0});
+        }
+        if (y > 0) {
+            frontier.add(new int[]{x, y, 0, -1});
+        }
+        if (y + 1 < height) {
+            frontier.add(new int[]{x, y, 0, 1});
+        }
+    }
+
+    private static void fill(boolean[][] filled, int x, int y, int pixelSize) {
+        for (int dx = 0; dx < pixelSize; dx++) {
+            for (int dy = 0; dy < pixelSize; dy++) {
+                filled[x * pixelSize + dx][y * pixelSize + dy] = true;
+            }
+        }
+    }
+
+    private static final int UP = 1;
+    private static final int RIGHT = 2;
+    private static final int DOWN = 4;
+    private static final int LEFT = 8;
+
+    /**
+     * @return for each corner of the pixels, the directions the outline of the filled pixels goes to from there
+     * (bits of UP, RIGHT, DOWN, LEFT), 0 for corners that are not on the outline
+     */
+    static int[][] outlineDirections(boolean[][] filled) {
+        var width = filled.length;
+        var height = filled[0].length;
+        var corners = new int[width + 1][height + 1];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                if (!filled[x][y]) {
+                    continue;
+                }
+                if (y == 0 || !filled[x][y - 1]) {
+                    corners[x][y] |= RIGHT;
+                    corners[x + 1][y] |= LEFT;
+                }
+                if (y == height - 1 || !filled[x][y + 1]) {
+                    corners[x][y + 1] |= RIGHT;
+                    corners[x + 1][y + 1] |= LEFT;
+                }
+                if (x == 0 || !filled[x - 1][y]) {
+                    corners[x][y] |= DOWN;
+                    corners[x][y + 1] |= UP;
+                }
+                if (x == width - 1 || !filled[x + 1][y]) {
+                    corners[x + 1][y] |= DOWN;
+                    corners[x + 1][y + 1] |= UP;
+                }
+            }
+        }
+        return corners;
+    }
+
+    /**
+     * @return the corners of the outline in the order of walking around it once
+     */
+    static List<Pos> tracePath(int[][] corners) {
+        Pos start = null;
+        for (int x = 0; x < corners.length && start == null; x++) {
+            for (int y = 0; y < corners[0].length; y++) {
+                if (corners[x][y] != 0) {
+                    start = new Pos(x, y);
+                    break;
+                }
+            }
+        }
+        var path = new ArrayList<Pos>();
+        var pos = start;
+        var cameFrom = 0;
+        do {
+            path.add(pos);
+            var directions = corners[pos.x()][pos.y()] & ~cameFrom;
+            var dir = Integer.lowestOneBit(directions);
+            pos = switch (dir) {
+                case UP -> new Pos(pos.x(), pos.y() - 1);
+                case RIGHT -> new Pos(pos.x() + 1, pos.y());
+                case DOWN -> new Pos(pos.x(), pos.y() + 1);
+                default -> new Pos(pos.x() - 1, pos.y());
+            };
+            cameFrom = switch (dir) {
+                case UP -> DOWN;
+                case RIGHT -> LEFT;
+                case DOWN -> UP;
+                default -> RIGHT;
+            };
+        } while (!pos.equals(start));
+        return path;
+    }
+
+    private static char pipe(int directions) {
+        return switch (directions) {
+            case UP | DOWN -> '|';
+            case LEFT | RIGHT -> '-';
+            case UP | RIGHT -> 'L';
+            case UP | LEFT -> 'J';
+            case DOWN | LEFT -> '7';
+            case DOWN | RIGHT -> 'F';
+            default -> throw new IllegalStateException("Outline touches itself: " + directions);
+        };
+    }
+
+    // 0 up, 1 right, 2 down, 3 left, for the step from path[i] to path[i + 1]
+    private static int direction(List<Pos> path, int i) {
+        var from = path.get(Math.floorMod(i, path.size()));
+        var to = path.get(Math.floorMod(i + 1, path.size()));
+        if (to.y() < from.y()) {
+            return 0;
+        } else if (to.x() > from.x()) {
+            return 1;
+        } else if (to.y() > from.y()) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+
+    // Strictly increasing coordinates with random gaps, stretching a shape keeps it from touching itself
+    private static long[] stretch(Random random, int size, int maxGap) {
+        var coordinates = new long[size];
+        for (int i = 1; i < size; i++) {
+            coordinates[i] = coordinates[i - 1] + 1 + random.nextInt(Math.max(1, maxGap));
+        }
+        return coordinates;
+    }
+
+    private static boolean hasOneReflectionAndOneSmudge(boolean[][] grid) {
+        var height = grid.length;
+        var width = grid[0].length;
+        var clean = 0;
+        var smudged = 0;
+        for (int line = 1; line < height; line++) {
+            var differences = 0;
+            for (int y = 0; line - 1 - y >= 0 && line + y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if (grid[line - 1 - y][x] != grid[line + y][x]) {
+                        differences++;
+                    }
+                }
+            }
+            clean += differences == 0 ? 1 : 0;
+            smudged += differences == 1 ? 1 : 0;
+        }
+        for (int line = 1; line < width; line++) {
+            var differences = 0;
+            for (int x = 0; line - 1 - x >= 0 && line + x < width; x++) {
+                for (int y = 0; y < height; y++) {
+                    if (grid[y][line - 1 - x] != grid[y][line + x]) {
+                        differences++;
+                    }
+                }
+            }
+            clean += differences == 0 ? 1 : 0;
+            smudged += differences == 1 ? 1 : 0;
+        }
+        return clean == 1 && smudged == 1;
+    }
+
+    private static boolean[][] transpose(boolean[][] grid) {
+        var transposed = new boolean[grid[0].length][grid.length];
+        for (int y = 0; y < grid.length; y++) {
+            for (int x = 0; x < grid[0].length; x++) {
+                transposed[x][y] = grid[y][x];
+            }
+        }
+        return transposed;
+    }
+
+    private static int find(int[] groups, int i) {
+        while (groups[i] != i) {
+            groups[i] = groups[groups[i]];
+            i = groups[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] groups, int a, int b) {
+        groups[find(groups, a)] = find(groups, b);
+    }
+
+    private static void shuffle(int[] array, Random random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            var j = random.nextInt(i + 1);
+            var t = array[i];
+            array[i] = array[j];
+            array[j] = t;
+        }
+    }
+
+    private static String lines(char[][] map) {
+        var sb = new StringBuilder(map.length * (map[0].length + 1));
+        for (char[] row : map) {
+            sb.append(row).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static char digit(Random random) {
+        return (char) ('1' + random.nextInt(9));
+    }
+
+    private static char letter(Random random) {
+        return (char) ('a' + random.nextInt(26));
+    }
+
+    // Lowercase name of at least minLength letters, unique for each index
+    private static String name(int index, int minLength) {
+        var chars = new char[minLength];
+        for (int i = minLength - 1; i >= 0; i--) {
+            chars[i] = (char) ('a' + index % 26);
+            index /= 26;
+        }
+        return new String(chars);
+    }
+
+    private static String upperName(int index, int length) {
+        return name(index, length).toUpperCase();
+    }
+
+    // How many letters are needed for count unique names
+    private static int nameLength(int count, int minLength) {
+        var length = minLength;
+        while (Math.pow(26, length) < count) {
+            length++;
+        }
+        return length;
+    }
+
+    // Solves a small generated input, to check that the generator's inputs parse and can be solved in time. The
+    // answers aren't checked, they don't mean anything for some days.
+    private static void solves(int day, int scale, ThrowingConsumer<String> parts) {
+        var input = generate(day, scale, 1);
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> parts.accept(input));
+    }
+
+    @Test
+    void day21TooBig() {
+        assertThrows(IllegalArgumentException.class, () -> generate(21, MAX_DAY21_SIZE + 1, 1));
+    }
+
+    @Test
+    void day01() {
+        solves(1, 10, input -> {
+            Day01.solve1(input);
+            Day01.solve2(input);
+        });
+    }
+
+    @Test
+    void day02() {
+        solves(2, 10, input -> {
+            Day02.solve1(input);
+            Day02.solve2(input);
+        });
+    }
+
+    @Test
+    void day03() {
+        solves(3, 10, input -> {
+            Day03.solve1(input);
+            Day03.solve2(input);
+        });
+    }
+
+    @Test
+    void day04() {
+        solves(4, 10, input -> {
+            Day04.solve1(input);
+            Day04.solve2(input);
+        });
+    }
+
+    @Test
+    void day05() {
+        solves(5, 10, input -> {
+            Day05.solve1(input);
+            Day05.solve2(input);
+        });
+    }
+
+    @Test
+    void day06() {
+        solves(6, 10, input -> {
+            Day06.solve1(input);
+            Day06.solve2(input);
+        });
+    }
+
+    @Test
+    void day07() {
+        solves(7, 10, input -> {
+            Day07.solve1(input);
+            Day07.solve2(input);
+        });
+    }
+
+    @Test
+    void day08() {
+        solves(8, 10, input -> {
+            Day08.solve1(input);
+            Day08.solve2(input);
+        });
+    }
+
+    @Test
+    void day09() {
+        solves(9, 10, input -> {
+            Day09.solve1(input);
+            Day09.solve2(input);
+        });
+    }
+
+    @Test
+    void day10() {
+        solves(10, 10, input -> {
+            Day10.solve1(input);
+            Day10.solve2(input);
+        });
+    }
+
+    @Test
+    void day11() {
+        solves(11, 10, input -> {
+            Day11.solve1(input);
+            Day11.solve2(input);
+        });
+    }
+
+    @Test
+    void day12() {
+        solves(12, 10, input -> {
+            Day12.solve1(input);
+            Day12.solve2(input);
+        });
+    }
+
+    @Test
+    void day13() {
+        solves(13, 10, input -> Day13.solve2(input, Day13.solve1(input)));
+    }
+
+    @Test
+    void day14() {
+        solves(14, 10, input -> {
+            Day14.solve1(input);
+            Day14.solve2(input);
+        });
+    }
+
+    @Test
+    void day15() {
+        solves(15, 10, input -> {
+            Day15.solve1(input);
+            Day15.solve2(input);
+        });
+    }
+
+    @Test
+    void day16() {
+        solves(16, 10, input -> {
+            Day16.solve1(input);
+            Day16.solve2(input);
+        });
+    }
+
+    @Test
+    void day17() {
+        solves(17, 10, input -> {
+            Day17.solve1(input);
+            Day17.solve2(input);
+        });
+    }
+
+    @Test
+    void day18() {
+        solves(18, 10, input -> {
+            Day18.solve1(input);
+            Day18.solve2(input);
+        });
+    }
+
+    @Test
+    void day19() {
+        solves(19, 10, input -> {
+            Day19.solve1(input);
+            Day19.solve2(input);
+        });
+    }
+
+    @Test
+    void day20() {
+        solves(20, 10, input -> {
+            Day20.solve1(input);
+            Day20.solve2(input);
+        });
+    }
+
+    @Test
+    void day21() {
+        solves(21, 11, input -> {
+            Day21.solve1(input);
+            Day21.solve2(input);
+        });
+    }
+
+    @Test
+    void day22() {
+        solves(22, 10, input -> {
+            Day22.solve1(input);
+            Day22.solve2(input);
+        });
+    }
+
+    @Test
+    void day23() {
+        solves(23, 10, input -> {
+            Day23.solve1(input);
+            Day23.solve2(input);
+        });
+    }
+
+    @Test
+    void day24() {
+        solves(24, 10, input -> Day24.solve1(input, 0, Long.MAX_VALUE));
+    }
+
+    @Test
+    void day25() {
+        solves(25, 10, Day25::solve1);
+    }
+}
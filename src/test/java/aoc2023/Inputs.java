@@ -0,0 +1,58 @@
+package aoc2023;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class Inputs {
+
+    // e.g. "gen1000" or "gen1000-42" for a different seed
+    private static final Pattern GENERATED = Pattern.compile("gen(\\d+)(?:-(\\d+))?");
+
+    /**
+     * Load the input for a day. Size "input" is the puzzle input in src/test/resources/dayNN.txt, any other size
+     * is read from src/test/resources/dayNN-size.txt, e.g. size "large" reads day05-large.txt. Sizes like
+     * "gen1000" are generated instead, see {@link Generators}.
+     */
+    static String load(int day, String size) {
+        var generated = GENERATED.matcher(size);
+        if (generated.matches()) {
+            return generate(day, generated);
+        }
+        var name = resourceName(day, size);
+        var resource = Resources.class.getResource(name);
+        if (resource == null) {
+            throw new IllegalStateException("Missing input " + name + ", see README for how to download inputs");
+        }
+        return Resources.readString(resource);
+    }
+
+    /**
+     * Like {@link #load}, but memory mapped instead of read into a String.
+     */
+    static AsciiInput map(int day, String size) {
+        var generated = GENERATED.matcher(size);
+        if (generated.matches()) {
+            return AsciiInput.of(generate(day, generated));
+        }
+        var name = resourceName(day, size);
+        var resource = Resources.class.getResource(name);
+        if (resource == null) {
+            throw new IllegalStateException("Missing input " + name + ", see README for how to download inputs");
+        }
+        return Resources.mapAscii(resource);
+    }
+
+    static boolean exists(int day, String size) {
+        return GENERATED.matcher(size).matches() || Resources.class.getResource(resourceName(day, size)) != null;
+    }
+
+    private static String generate(int day, Matcher generated) {
+        var scale = Integer.parseInt(generated.group(1));
+        var seed = generated.group(2) != null ? Long.parseLong(generated.group(2)) : 1;
+        return Generators.generate(day, scale, seed);
+    }
+
+    private static String resourceName(int day, String size) {
+        return String.format("/day%02d%s.txt", day, size.equals("input") ? "" : "-" + size);
+    }
+}
@@ -0,0 +1,116 @@
+package aoc2023;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Dense grid of int cells, backed by a single int array (row {@code y} starts at {@code y * stride}).
+ */
+public class IntGrid {
+
+    private final int[] cells;
+    private final int width;
+    private final int height;
+    private final int stride;
+
+    public IntGrid(int width, int height) {
+        this.cells = new int[width * height];
+        this.width = width;
+        this.height = height;
+        this.stride = width;
+    }
+
+    /**
+     * Parse each character of the input into an int, e.g. {@code c -> c - '0'} for digit maps.
+     */
+    public static IntGrid parse(String input, IntUnaryOperator parseCell) {
+        var chars = CharGrid.parse(input);
+        var grid = new IntGrid(chars.width(), chars.height());
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                grid.cells[y * grid.stride + x] = parseCell.applyAsInt(chars.get(x, y));
+            }
+        }
+        return grid;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int stride() {
+        return stride;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean contains(Pos pos) {
+        return contains(pos.x(), pos.y());
+    }
+
+    public int get(int x, int y) {
+        return cells[index(x, y)];
+    }
+
+    public int get(Pos pos) {
+        return get(pos.x(), pos.y());
+    }
+
+    /**
+     * @return the cell at the position, or {@code outside} if the position is not within the grid
+     */
+    public int getOrDefault(int x, int y, int outside) {
+        return contains(x, y) ? cells[y * stride + x] : outside;
+    }
+
+    public void set(int x, int y, int value) {
+        cells[index(x, y)] = value;
+    }
+
+    public void set(Pos pos, int value) {
+        set(pos.x(), pos.y(), value);
+    }
+
+    /**
+     * @return a copy of row {@code y}
+     */
+    public int[] row(int y) {
+        if (y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Row " + y + " out of bounds for height " + height);
+        }
+        var row = new int[width];
+        System.arraycopy(cells, y * stride, row, 0, width);
+        return row;
+    }
+
+    /**
+     * Sparse map view like {@link Grids#parse}, for code that hasn't been moved over to the dense grid yet.
+     */
+    public <T> Map<Pos, T> toMap(IntFunction<T> parseCell) {
+        var map = new LinkedHashMap<Pos, T>();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                var cell = parseCell.apply(cells[y * stride + x]);
+                if (cell != null) {
+                    map.put(new Pos(x, y), cell);
+                }
+            }
+        }
+        return map;
+    }
+
+    private int index(int x, int y) {
+        if (!contains(x, y)) {
+            throw new IndexOutOfBoundsException("Position " + x + "," + y + " out of bounds for grid " + width + "x" + height);
+        }
+        return y * stride + x;
+    }
+}
@@ -1,25 +1,240 @@
 package aoc2023;
 
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
 import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class Maths {
 
+    /**
+     * x ≡ remainder (mod modulus), with 0 <= remainder < modulus.
+     */
+    record Congruence(long remainder, long modulus) {
+        Congruence {
+            if (modulus <= 0) {
+                throw new IllegalArgumentException("Modulus must be positive: " + modulus);
+            }
+            remainder = Math.floorMod(remainder, modulus);
+        }
+
+        /**
+         * @return the smallest solution that is at least {@code min}
+         */
+        long smallestAtLeast(long min) {
+            return Math.addExact(min, Math.floorMod(remainder - min, modulus));
+        }
+    }
+
+    record BigCongruence(BigInteger remainder, BigInteger modulus) {
+    }
+
+    /**
+     * a * x + b * y = gcd
+     */
+    record ExtendedGcd(long gcd, long x, long y) {
+    }
+
+    public static long gcd(long number1, long number2) {
+        long a = Math.abs(number1);
+        long b = Math.abs(number2);
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    public static ExtendedGcd extendedGcd(long a, long b) {
+        long oldR = a, r = b;
+        long oldX = 1, x = 0;
+        long oldY = 0, y = 1;
+        while (r != 0) {
+            long quotient = oldR / r;
+            long t = oldR - quotient * r;
+            oldR = r;
+            r = t;
+            t = oldX - quotient * x;
+            oldX = x;
+            x = t;
+            t = oldY - quotient * y;
+            oldY = y;
+            y = t;
+        }
+        if (oldR < 0) {
+            return new ExtendedGcd(-oldR, -oldX, -oldY);
+        }
+        return new ExtendedGcd(oldR, oldX, oldY);
+    }
+
+    /**
+     * @throws ArithmeticException if the result doesn't fit into a long, see {@link #lcmBig} for that case
+     */
     public static long lcm(long number1, long number2) {
         if (number1 == 0 || number2 == 0) {
             return 0;
         }
         long absNumber1 = Math.abs(number1);
         long absNumber2 = Math.abs(number2);
-        long absHigherNumber = Math.max(absNumber1, absNumber2);
-        long absLowerNumber = Math.min(absNumber1, absNumber2);
-        long lcm = absHigherNumber;
-        while (lcm % absLowerNumber != 0) {
-            lcm += absHigherNumber;
-        }
-        return lcm;
+        return Math.multiplyExact(absNumber1 / gcd(absNumber1, absNumber2), absNumber2);
     }
 
     public static long lcm(Collection<Long> numbers) {
         return numbers.stream().reduce(1L, Maths::lcm);
     }
+
+    public static BigInteger lcmBig(Collection<Long> numbers) {
+        var result = BigInteger.ONE;
+        for (long number : numbers) {
+            if (number == 0) {
+                return BigInteger.ZERO;
+            }
+            var big = BigInteger.valueOf(number).abs();
+            result = result.divide(result.gcd(big)).multiply(big);
+        }
+        return result;
+    }
+
+    /**
+     * (a * b) mod m, without overflowing for big factors.
+     */
+    public static long mulMod(long a, long b, long m) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return Math.floorMod(low, m);
+        }
+        return BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(BigInteger.valueOf(m)).longValueExact();
+    }
+
+    /**
+     * Chinese remainder theorem that also works for moduli that are not coprime.
+     *
+     * @return the combined congruence, or null if there is no number satisfying both
+     * @throws ArithmeticException if the combined modulus doesn't fit into a long, see {@link #crtBig} for that case
+     */
+    public static Congruence crt(Congruence a, Congruence b) {
+        var gcd = extendedGcd(a.modulus(), b.modulus());
+        var g = gcd.gcd();
+        var diff = b.remainder() - a.remainder();
+        if (diff % g != 0) {
+            return null;
+        }
+        var m2 = b.modulus() / g;
+        var modulus = Math.multiplyExact(a.modulus() / g, b.modulus());
+        // a.modulus * k ≡ diff (mod b.modulus), gcd.x() is the inverse of a.modulus / g modulo m2
+        var k = mulMod(Math.floorMod(diff / g, m2), Math.floorMod(gcd.x(), m2), m2);
+        // Smaller than the combined modulus, but checked anyway so that an overflow can't go unnoticed
+        return new Congruence(Math.addExact(a.remainder(), Math.multiplyExact(a.modulus(), k)), modulus);
+    }
+
+    /**
+     * @return the congruence satisfying all of them, or null if there is none
+     */
+    public static Congruence crt(Collection<Congruence> congruences) {
+        var result = new Congruence(0, 1);
+        for (Congruence congruence : congruences) {
+            result = crt(result, congruence);
+            if (result == null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Like {@link #crt(Collection)}, but for when the combined modulus gets too big for a long.
+     */
+    public static BigCongruence crtBig(Collection<Congruence> congruences) {
+        var remainder = BigInteger.ZERO;
+        var modulus = BigInteger.ONE;
+        for (Congruence congruence : congruences) {
+            var m = BigInteger.valueOf(congruence.modulus());
+            var g = modulus.gcd(m);
+            var diff = BigInteger.valueOf(congruence.remainder()).subtract(remainder);
+            if (diff.mod(g).signum() != 0) {
+                return null;
+            }
+            var m2 = m.divide(g);
+            var k = m2.equals(BigInteger.ONE) ? BigInteger.ZERO : diff.divide(g).multiply(modulus.divide(g).modInverse(m2)).mod(m2);
+            remainder = remainder.add(modulus.multiply(k));
+            modulus = modulus.divide(g).multiply(m);
+            remainder = remainder.mod(modulus);
+        }
+        return new BigCongruence(remainder, modulus);
+    }
+
+    @Test
+    void gcdAndLcm() {
+        assertEquals(6, gcd(12, -18));
+        assertEquals(36, lcm(12, -18));
+        assertEquals(0, lcm(0, 5));
+        assertEquals(2520, lcm(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L)));
+        assertThrows(ArithmeticException.class, () -> lcm(Long.MAX_VALUE, Long.MAX_VALUE - 1));
+        assertEquals(BigInteger.valueOf(Long.MAX_VALUE).multiply(BigInteger.valueOf(Long.MAX_VALUE - 1)),
+                lcmBig(List.of(Long.MAX_VALUE, Long.MAX_VALUE - 1)));
+        assertEquals(BigInteger.ZERO, lcmBig(List.of(3L, 0L)));
+
+        for (long[] pair : new long[][]{{240, 46}, {46, 240}, {-240, 46}, {17, 5}, {0, 7}, {7, 0}}) {
+            var result = extendedGcd(pair[0], pair[1]);
+            assertEquals(gcd(pair[0], pair[1]), result.gcd());
+            assertEquals(result.gcd(), pair[0] * result.x() + pair[1] * result.y());
+        }
+    }
+
+    @Test
+    void mulModMatchesBigInteger() {
+        var random = new Random(1);
+        var special = new long[]{0, 1, -1, 2, Long.MAX_VALUE, Long.MIN_VALUE + 1, 3_037_000_499L, 4_294_967_296L};
+        for (int i = 0; i < 10_000; i++) {
+            var a = i < special.length ? special[i] : random.nextLong();
+            var b = i < special.length ? special[special.length - 1 - i] : random.nextLong();
+            var m = i % 2 == 0 ? 1 + random.nextLong(Long.MAX_VALUE) : 1 + random.nextInt(1000);
+            var expected = BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).mod(BigInteger.valueOf(m));
+            assertEquals(expected.longValueExact(), mulMod(a, b, m));
+        }
+    }
+
+    @Test
+    void chineseRemainder() {
+        // Coprime
+        assertEquals(new Congruence(8, 15), crt(new Congruence(2, 3), new Congruence(3, 5)));
+        // Not coprime, but compatible
+        assertEquals(new Congruence(10, 12), crt(new Congruence(2, 4), new Congruence(4, 6)));
+        // Not coprime and no solution
+        assertNull(crt(new Congruence(1, 4), new Congruence(2, 6)));
+        assertNull(crtBig(List.of(new Congruence(1, 4), new Congruence(2, 6))));
+        assertEquals(new Congruence(23, 105),
+                crt(List.of(new Congruence(2, 3), new Congruence(3, 5), new Congruence(2, 7))));
+
+        // Combined modulus close to Long.MAX_VALUE
+        var p = 2_147_483_647L;
+        var q = 4_294_967_291L;
+        var congruences = List.of(new Congruence(p - 1, p), new Congruence(12_345, q));
+        var combined = crt(congruences);
+        assertEquals(p * q, combined.modulus());
+        assertEquals(p - 1, combined.remainder() % p);
+        assertEquals(12_345, combined.remainder() % q);
+        var big = crtBig(congruences);
+        assertEquals(BigInteger.valueOf(combined.remainder()), big.remainder());
+        assertEquals(BigInteger.valueOf(combined.modulus()), big.modulus());
+
+        // Too big for a long, but not for BigInteger
+        var tooBig = List.of(new Congruence(1, p), new Congruence(2, q), new Congruence(3, 65_537));
+        assertThrows(ArithmeticException.class, () -> crt(tooBig));
+        var bigResult = crtBig(tooBig);
+        assertEquals(BigInteger.valueOf(p).multiply(BigInteger.valueOf(q)).multiply(BigInteger.valueOf(65_537)),
+                bigResult.modulus());
+        for (var congruence : tooBig) {
+            assertEquals(BigInteger.valueOf(congruence.remainder()),
+                    bigResult.remainder().mod(BigInteger.valueOf(congruence.modulus())));
+        }
+    }
 }
@@ -36,4 +36,102 @@ public class Parsing {
         }
         return result;
     }
+
+    /**
+     * Scan the numbers in the input into {@code result}, without allocating. Numbers are runs of digits, optionally
+     * with a leading minus. Numbers that don't fit into an int are skipped, like in {@link #numbers(String)}.
+     *
+     * @return how many numbers there are; if that's more than {@code result.length}, only the first ones were stored
+     */
+    static int numbers(CharSequence input, int[] result) {
+        return numbers(input, 0, input.length(), result);
+    }
+
+    /**
+     * Like {@link #numbers(CharSequence, int[])}, but only scans {@code input} between {@code from} (inclusive)
+     * and {@code to} (exclusive), e.g. a single line of a bigger input.
+     */
+    static int numbers(CharSequence input, int from, int to, int[] result) {
+        var count = 0;
+        var i = from;
+        while (i < to) {
+            var c = input.charAt(i);
+            var negative = c == '-' && i + 1 < to && isDigit(input.charAt(i + 1));
+            if (!negative && !isDigit(c)) {
+                i++;
+                continue;
+            }
+            if (negative) {
+                i++;
+            }
+            var value = 0L;
+            var overflow = false;
+            while (i < to && isDigit(c = input.charAt(i))) {
+                value = value * 10 + (c - '0');
+                if (value > (long) Integer.MAX_VALUE + 1) {
+                    overflow = true;
+                    value = 0;
+                }
+                i++;
+            }
+            value = negative ? -value : value;
+            if (overflow || value > Integer.MAX_VALUE) {
+                continue;
+            }
+            if (count < result.length) {
+                result[count] = (int) value;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Long version of {@link #numbers(CharSequence, int[])}.
+     */
+    static int numbersLong(CharSequence input, long[] result) {
+        return numbersLong(input, 0, input.length(), result);
+    }
+
+    /**
+     * Long version of {@link #numbers(CharSequence, int, int, int[])}.
+     */
+    static int numbersLong(CharSequence input, int from, int to, long[] result) {
+        var count = 0;
+        var i = from;
+        while (i < to) {
+            var c = input.charAt(i);
+            var negative = c == '-' && i + 1 < to && isDigit(input.charAt(i + 1));
+            if (!negative && !isDigit(c)) {
+                i++;
+                continue;
+            }
+            if (negative) {
+                i++;
+            }
+            // Accumulate negated, so that Long.MIN_VALUE can be parsed too
+            var value = 0L;
+            var overflow = false;
+            while (i < to && isDigit(c = input.charAt(i))) {
+                var digit = c - '0';
+                if (value < (Long.MIN_VALUE + digit) / 10) {
+                    overflow = true;
+                }
+                value = value * 10 - digit;
+                i++;
+            }
+            if (overflow || (!negative && value == Long.MIN_VALUE)) {
+                continue;
+            }
+            if (count < result.length) {
+                result[count] = negative ? value : -value;
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
 }
@@ -0,0 +1,169 @@
+package aoc2023;
+
+import java.util.Arrays;
+
+/**
+ * Map from position to value, same table layout as {@link PosSet} (packed long keys, linear probing) with the
+ * values in a parallel array.
+ */
+public class PosMap<V> {
+
+    private static final long FREE = PosSet.FREE;
+
+    interface PosValueConsumer<V> {
+        void accept(int x, int y, V value);
+    }
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private V freeKeyValue;
+    private boolean hasFreeKey;
+
+    public PosMap() {
+        this(16);
+    }
+
+    public PosMap(int expectedSize) {
+        allocate(PosSet.tableSize(expectedSize));
+    }
+
+    public V get(int x, int y) {
+        return getOrDefault(x, y, null);
+    }
+
+    public V get(Pos pos) {
+        return get(pos.x(), pos.y());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int x, int y, V defaultValue) {
+        var key = PosSet.pack(x, y);
+        if (key == FREE) {
+            return hasFreeKey ? freeKeyValue : defaultValue;
+        }
+        var slot = find(key);
+        return slot >= 0 ? (V) values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(int x, int y) {
+        var key = PosSet.pack(x, y);
+        if (key == FREE) {
+            return hasFreeKey;
+        }
+        return find(key) >= 0;
+    }
+
+    public boolean containsKey(Pos pos) {
+        return containsKey(pos.x(), pos.y());
+    }
+
+    /**
+     * @return the previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int x, int y, V value) {
+        var key = PosSet.pack(x, y);
+        if (key == FREE) {
+            var previous = freeKeyValue;
+            freeKeyValue = value;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            return previous;
+        }
+        var slot = PosSet.hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                var previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    public V put(Pos pos, V value) {
+        return put(pos.x(), pos.y(), value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries, but keep the allocated table.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, FREE);
+        Arrays.fill(values, null);
+        size = 0;
+        hasFreeKey = false;
+        freeKeyValue = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(PosValueConsumer<V> consumer) {
+        if (hasFreeKey) {
+            consumer.accept(PosSet.x(FREE), PosSet.y(FREE), freeKeyValue);
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            var key = keys[slot];
+            if (key != FREE) {
+                consumer.accept(PosSet.x(key), PosSet.y(key), (V) values[slot]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        var slot = PosSet.hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        Arrays.fill(keys, FREE);
+        values = new Object[tableSize];
+        mask = tableSize - 1;
+        resizeAt = tableSize / 4 * 3;
+    }
+
+    private void rehash(int tableSize) {
+        var oldKeys = keys;
+        var oldValues = values;
+        allocate(tableSize);
+        for (int i = 0; i < oldKeys.length; i++) {
+            var key = oldKeys[i];
+            if (key != FREE) {
+                var slot = PosSet.hash(key) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package aoc2023;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * Set of positions that doesn't box: each (x, y) is packed into one long and stored in an open addressing table
+ * with linear probing. Negative coordinates work too.
+ * <p>
+ * {@link #clear()} keeps the table around, so two sets can be swapped and reused for the layers of a BFS.
+ */
+public class PosSet {
+
+    // Marks a free slot in the table. It's also the packed key of (Integer.MIN_VALUE, 0), so that one is tracked
+    // separately with a flag.
+    static final long FREE = Long.MIN_VALUE;
+
+    interface PosConsumer {
+        void accept(int x, int y);
+    }
+
+    private long[] keys;
+    private int mask;
+    private int resizeAt;
+    private int size;
+    private boolean hasFreeKey;
+
+    public PosSet() {
+        this(16);
+    }
+
+    public PosSet(int expectedSize) {
+        allocate(tableSize(expectedSize));
+    }
+
+    static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    static int x(long key) {
+        return (int) (key >> 32);
+    }
+
+    static int y(long key) {
+        return (int) key;
+    }
+
+    static int hash(long key) {
+        var h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int tableSize(int expectedSize) {
+        var tableSize = 16;
+        while (tableSize / 4 * 3 <= expectedSize && tableSize < (1 << 30)) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+
+    public boolean add(int x, int y) {
+        return addKey(pack(x, y));
+    }
+
+    public boolean add(Pos pos) {
+        return add(pos.x(), pos.y());
+    }
+
+    public void addAll(PosSet other) {
+        if (other.hasFreeKey) {
+            addKey(FREE);
+        }
+        for (long key : other.keys) {
+            if (key != FREE) {
+                addKey(key);
+            }
+        }
+    }
+
+    public boolean contains(int x, int y) {
+        var key = pack(x, y);
+        if (key == FREE) {
+            return hasFreeKey;
+        }
+        return find(key) >= 0;
+    }
+
+    public boolean contains(Pos pos) {
+        return contains(pos.x(), pos.y());
+    }
+
+    public boolean remove(int x, int y) {
+        var key = pack(x, y);
+        if (key == FREE) {
+            if (!hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = false;
+            size--;
+            return true;
+        }
+        var slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        shiftBack(slot);
+        size--;
+        return true;
+    }
+
+    public boolean remove(Pos pos) {
+        return remove(pos.x(), pos.y());
+    }
+
+    public void removeAll(PosSet other) {
+        other.forEach(this::remove);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all positions, but keep the allocated table.
+     */
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        Arrays.fill(keys, FREE);
+        size = 0;
+        hasFreeKey = false;
+    }
+
+    public void forEach(PosConsumer consumer) {
+        if (hasFreeKey) {
+            consumer.accept(x(FREE), y(FREE));
+        }
+        for (long key : keys) {
+            if (key != FREE) {
+                consumer.accept(x(key), y(key));
+            }
+        }
+    }
+
+    /**
+     * @return iterator over the packed keys, use {@link #x(long)} and {@link #y(long)} to unpack
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private boolean freeKeyPending = hasFreeKey;
+            private int slot = nextSlot(0);
+
+            @Override
+            public boolean hasNext() {
+                return freeKeyPending || slot < keys.length;
+            }
+
+            @Override
+            public long nextLong() {
+                if (freeKeyPending) {
+                    freeKeyPending = false;
+                    return FREE;
+                }
+                if (slot >= keys.length) {
+                    throw new NoSuchElementException();
+                }
+                var key = keys[slot];
+                slot = nextSlot(slot + 1);
+                return key;
+            }
+        };
+    }
+
+    public Set<Pos> toSet() {
+        var set = new HashSet<Pos>();
+        forEach((x, y) -> set.add(new Pos(x, y)));
+        return set;
+    }
+
+    private int nextSlot(int slot) {
+        while (slot < keys.length && keys[slot] == FREE) {
+            slot++;
+        }
+        return slot;
+    }
+
+    private boolean addKey(long key) {
+        if (key == FREE) {
+            if (hasFreeKey) {
+                return false;
+            }
+            hasFreeKey = true;
+            size++;
+            return true;
+        }
+        var slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size >= resizeAt) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    private int find(long key) {
+        var slot = hash(key) & mask;
+        while (keys[slot] != FREE) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Backward shift deletion: move following entries of the probe sequence into the gap, so lookups don't need
+    // tombstones.
+    private void shiftBack(int gap) {
+        var next = (gap + 1) & mask;
+        while (keys[next] != FREE) {
+            var ideal = hash(keys[next]) & mask;
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE;
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        Arrays.fill(keys, FREE);
+        mask = tableSize - 1;
+        resizeAt = tableSize / 4 * 3;
+    }
+
+    private void rehash(int tableSize) {
+        var oldKeys = keys;
+        allocate(tableSize);
+        for (long key : oldKeys) {
+            if (key != FREE) {
+                var slot = hash(key) & mask;
+                while (keys[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
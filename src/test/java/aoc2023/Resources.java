@@ -1,10 +1,14 @@
 package aoc2023;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -21,4 +25,60 @@ public class Resources {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Memory map an ASCII file, without reading or decoding it. Files need to be smaller than 2 GB, use
+     * {@link #mapAsciiChunks} for bigger ones.
+     */
+    public static AsciiInput mapAscii(URL resource) {
+        try (var channel = open(resource)) {
+            var size = channel.size();
+            // Check before mapping anything, mapping a huge file just to give up would be a waste
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File " + resource + " is too big to map at once, use mapAsciiChunks");
+            }
+            return new AsciiInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Memory map an ASCII file of any size as chunks of at most {@code maxChunkSize} bytes. Chunks end after a
+     * newline, so no line is split between two chunks.
+     */
+    public static List<AsciiInput> mapAsciiChunks(URL resource, int maxChunkSize) {
+        try (var channel = open(resource)) {
+            var chunks = new ArrayList<AsciiInput>();
+            var size = channel.size();
+            var position = 0L;
+            while (position < size) {
+                var mapSize = (int) Math.min(maxChunkSize, size - position);
+                var buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, mapSize);
+                var chunk = new AsciiInput(buffer);
+                var chunkSize = mapSize;
+                if (position + mapSize < size) {
+                    var lastNewline = chunk.lastIndexOf((byte) '\n', mapSize - 1);
+                    if (lastNewline < 0) {
+                        throw new IllegalArgumentException("Line at offset " + position + " is longer than " + maxChunkSize);
+                    }
+                    chunkSize = lastNewline + 1;
+                    chunk = chunk.subSequence(0, chunkSize);
+                }
+                chunks.add(chunk);
+                position += chunkSize;
+            }
+            return chunks;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FileChannel open(URL resource) throws IOException {
+        try {
+            return FileChannel.open(Path.of(Objects.requireNonNull(resource).toURI()), StandardOpenOption.READ);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }